@@ -0,0 +1,198 @@
+package com.todoapp.loadtest;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.google.api.core.ApiFuture;
+import com.google.api.core.SettableApiFuture;
+import com.google.cloud.firestore.ListenerRegistration;
+import com.todoapp.FirestoreGateway;
+import com.todoapp.Json;
+import com.todoapp.Task;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
+
+/**
+ * In-process stand-in for the users/{uid}/tasks collections behind the {@link FirestoreGateway}
+ * boundary, so the real FirebaseService (RPC executor, timeouts, read cache, conflict
+ * resolution) is what gets measured. Every call completes after a fixed simulated RPC latency
+ * without blocking the caller, and listeners receive only the changed documents.
+ */
+public class FakeFirestore implements FirestoreGateway {
+    private static final TypeReference<Map<String, Object>> DOCUMENT = new TypeReference<Map<String, Object>>() {};
+
+    private final long latencyMillis;
+    // Document values are immutable scalars, so a shallow map copy detaches a stored document
+    private final Map<String, Map<String, Map<String, Object>>> collections = new HashMap<>();
+    private final Map<String, List<ChangeListener>> listeners = new HashMap<>();
+    private final ScheduledExecutorService clock;
+    private final Random random = new Random(42);
+
+    public FakeFirestore(long latencyMillis) {
+        this.latencyMillis = latencyMillis;
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(2, runnable -> {
+            Thread thread = new Thread(runnable, "fake-firestore");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.clock = executor;
+    }
+
+    /**
+     * Stores tasks immediately, without latency or change events.
+     */
+    public synchronized void seed(String uid, List<Task> tasks) {
+        Map<String, Map<String, Object>> collection = collection(uid);
+        for (Task task : tasks) {
+            Map<String, Object> document = toDocument(task);
+            document.put("ownerId", uid);
+            collection.put(task.getId(), document);
+        }
+    }
+
+    @Override
+    public ApiFuture<Void> set(String uid, String taskId, Map<String, Object> data) {
+        return later(() -> {
+            Map<String, Object> stored = new HashMap<>(data);
+            synchronized (this) {
+                collection(uid).put(taskId, stored);
+            }
+            notifyListeners(uid, Collections.singletonList(stored), Collections.emptyList());
+            return null;
+        });
+    }
+
+    @Override
+    public ApiFuture<Map<String, Object>> update(String uid, String taskId, UnaryOperator<Map<String, Object>> update) {
+        return later(() -> {
+            Map<String, Object> stored;
+            synchronized (this) {
+                Map<String, Map<String, Object>> collection = collection(uid);
+                Map<String, Object> current = collection.get(taskId);
+                Map<String, Object> next = update.apply(current == null ? null : new HashMap<>(current));
+                if (next == null) {
+                    return current == null ? null : new HashMap<>(current);
+                }
+                stored = new HashMap<>(next);
+                collection.put(taskId, stored);
+            }
+            notifyListeners(uid, Collections.singletonList(stored), Collections.emptyList());
+            return new HashMap<>(stored);
+        });
+    }
+
+    @Override
+    public ApiFuture<Void> delete(String uid, String taskId) {
+        return later(() -> {
+            boolean removed;
+            synchronized (this) {
+                removed = collection(uid).remove(taskId) != null;
+            }
+            if (removed) {
+                notifyListeners(uid, Collections.emptyList(), Collections.singletonList(taskId));
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public ApiFuture<List<Map<String, Object>>> list(String uid) {
+        return later(() -> snapshot(uid));
+    }
+
+    @Override
+    public ListenerRegistration listen(String uid, ChangeListener listener) {
+        synchronized (this) {
+            listeners.computeIfAbsent(uid, key -> new CopyOnWriteArrayList<>()).add(listener);
+        }
+        clock.schedule(() -> listener.onChanges(snapshot(uid), Collections.emptyList()),
+            latencyMillis, TimeUnit.MILLISECONDS);
+        return () -> {
+            synchronized (this) {
+                List<ChangeListener> registered = listeners.get(uid);
+                if (registered != null) {
+                    registered.remove(listener);
+                }
+            }
+        };
+    }
+
+    /**
+     * Simulates another device editing a random task, to exercise the conflict and merge path.
+     */
+    public void remoteEdit(String uid, String writerId) {
+        Map<String, Object> stored;
+        synchronized (this) {
+            List<Map<String, Object>> documents = new ArrayList<>(collection(uid).values());
+            if (documents.isEmpty()) return;
+            Task edited = Json.mapper().convertValue(documents.get(random.nextInt(documents.size())), Task.class);
+            edited.setTitle(edited.getTitle() + "*");
+            edited.bumpRevision(writerId);
+            stored = toDocument(edited);
+            stored.put("ownerId", uid);
+            collection(uid).put(edited.getId(), stored);
+        }
+        clock.schedule(() -> notifyListeners(uid, Collections.singletonList(stored), Collections.emptyList()),
+            latencyMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void close() {
+        clock.shutdownNow();
+    }
+
+    private synchronized List<Map<String, Object>> snapshot(String uid) {
+        List<Map<String, Object>> documents = new ArrayList<>();
+        for (Map<String, Object> document : collection(uid).values()) {
+            documents.add(new HashMap<>(document));
+        }
+        return documents;
+    }
+
+    private Map<String, Map<String, Object>> collection(String uid) {
+        return collections.computeIfAbsent(uid, key -> new HashMap<>());
+    }
+
+    private void notifyListeners(String uid, List<Map<String, Object>> changed, List<String> removedIds) {
+        List<ChangeListener> targets;
+        synchronized (this) {
+            targets = listeners.get(uid);
+        }
+        if (targets == null) return;
+        for (ChangeListener listener : targets) {
+            List<Map<String, Object>> copies = new ArrayList<>(changed.size());
+            for (Map<String, Object> document : changed) {
+                copies.add(new HashMap<>(document));
+            }
+            listener.onChanges(copies, removedIds);
+        }
+    }
+
+    private <T> ApiFuture<T> later(Callable<T> action) {
+        SettableApiFuture<T> result = SettableApiFuture.create();
+        clock.schedule(() -> {
+            try {
+                result.set(action.call());
+            } catch (Exception e) {
+                result.setException(e);
+            }
+        }, latencyMillis, TimeUnit.MILLISECONDS);
+        return result;
+    }
+
+    // Same shape FirebaseService writes
+    private static Map<String, Object> toDocument(Task task) {
+        Map<String, Object> document = Json.mapper().convertValue(task, DOCUMENT);
+        document.remove("syncedRevision");
+        return document;
+    }
+}
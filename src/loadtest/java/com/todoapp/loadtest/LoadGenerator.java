@@ -0,0 +1,458 @@
+package com.todoapp.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.todoapp.FirebaseService;
+import com.todoapp.Json;
+import com.todoapp.Task;
+import com.todoapp.TaskRepository;
+import com.todoapp.TaskService;
+import com.todoapp.TodoBackend;
+import com.todoapp.TodoServer;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drives the TodoServer API with a configurable operation mix and reports throughput and
+ * latency percentiles. Build with {@code mvn -Ploadtest package}, then run e.g.
+ * <pre>
+ * java -cp target/todo-java-1.0.0.jar com.todoapp.loadtest.LoadGenerator \
+ *     --inprocess --fake-firestore-latency-ms=20 --dataset=10000 --ops=20000 --rate=500 --concurrency=8
+ * </pre>
+ * {@code --engine=mvstore} runs the in-process server on the MVStore engine (build with
+ * {@code -Ploadtest,mvstore}), so storage engines can be compared under the same workload.
+ * With {@code --rate} the load is open-loop and each latency is measured from the step's
+ * intended start, so queueing behind a slow request is counted (coordinated-omission
+ * correction). Without it workers run closed-loop; pass {@code --expected-interval-us}
+ * to have HdrHistogram back-fill the samples a stalled worker would have taken.
+ */
+public class LoadGenerator {
+    private static final String DEFAULT_MIX = "list=60,add=20,update=15,delete=4,clear=1";
+    private static final String FAKE_USER = "loadtest";
+
+    private final String baseUrl;
+    private final int concurrency;
+    private final long expectedIntervalMicros;
+    private final TaskPool pool = new TaskPool();
+    private final Map<Workload.Op, Histogram> histograms = new EnumMap<>(Workload.Op.class);
+    private final Map<Workload.Op, AtomicLong> errors = new EnumMap<>(Workload.Op.class);
+    private final Histogram overall = new ConcurrentHistogram(3);
+    private final AtomicInteger titleCounter = new AtomicInteger();
+    // Real requests only; histogram counts include back-filled samples when corrected
+    private final AtomicLong completed = new AtomicLong();
+
+    LoadGenerator(String baseUrl, int concurrency, long expectedIntervalMicros) {
+        this.baseUrl = baseUrl;
+        this.concurrency = concurrency;
+        this.expectedIntervalMicros = expectedIntervalMicros;
+        for (Workload.Op op : Workload.Op.values()) {
+            histograms.put(op, new ConcurrentHistogram(3));
+            errors.put(op, new AtomicLong());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseArgs(args);
+        int dataset = Integer.parseInt(options.getOrDefault("dataset", "1000"));
+        int ops = Integer.parseInt(options.getOrDefault("ops", "10000"));
+        double rate = Double.parseDouble(options.getOrDefault("rate", "0"));
+        int concurrency = Integer.parseInt(options.getOrDefault("concurrency", "4"));
+        long seed = Long.parseLong(options.getOrDefault("seed", "1"));
+        long expectedIntervalMicros = Long.parseLong(options.getOrDefault("expected-interval-us", "0"));
+        int warmup = Integer.parseInt(options.getOrDefault("warmup", "1000"));
+
+        List<Workload.Step> steps;
+        if (options.containsKey("replay")) {
+            steps = Workload.replay(Paths.get(options.get("replay")));
+            System.out.println("Replaying " + steps.size() + " steps from " + options.get("replay"));
+        } else {
+            steps = Workload.generate(Workload.parseMix(options.getOrDefault("mix", DEFAULT_MIX)), ops, rate, seed);
+        }
+        if (options.containsKey("record")) {
+            Workload.record(steps, Paths.get(options.get("record")));
+            System.out.println("Recorded " + steps.size() + " steps to " + options.get("record"));
+        }
+
+        TodoServer server = null;
+        FakeFirestore fakeFirestore = null;
+        ScheduledExecutorService remoteWriter = null;
+        String baseUrl = options.getOrDefault("url", "http://localhost:8080");
+        boolean seeded = false;
+
+        if (options.containsKey("inprocess")) {
+            String engine = options.getOrDefault("engine", "json");
+            Path dataDir = Files.createTempDirectory("todo-loadtest");
+            List<Task> initial = generateTasks(dataset);
+            TaskRepository repository = TaskRepository.create(engine, dataDir);
+            repository.saveAll(initial);
+
+            FirebaseService firebaseService;
+            if (options.containsKey("fake-firestore-latency-ms")) {
+                fakeFirestore = new FakeFirestore(Long.parseLong(options.get("fake-firestore-latency-ms")));
+                fakeFirestore.seed(FAKE_USER, initial);
+                firebaseService = new FirebaseService(fakeFirestore);
+            } else {
+                firebaseService = new FirebaseService();
+            }
+
+            TaskService taskService = new TaskService(repository, firebaseService);
+            TodoBackend backend = new TodoBackend(taskService);
+            if (fakeFirestore != null) {
+                taskService.whenReady().get();
+                backend.initializeFirebase("fake", FAKE_USER);
+                // Measure steady state, not requests racing the initial snapshot merge
+                taskService.whenSynced().get();
+            }
+            server = new TodoServer(backend);
+            server.start(0);
+            baseUrl = "http://localhost:" + server.getPort();
+            seeded = true;
+            System.out.println("In-process server on " + baseUrl + " with " + engine + " data in " + dataDir);
+
+            double remoteEditsPerSecond = Double.parseDouble(options.getOrDefault("remote-edits-per-sec", "0"));
+            if (fakeFirestore != null && remoteEditsPerSecond > 0) {
+                FakeFirestore target = fakeFirestore;
+                remoteWriter = Executors.newSingleThreadScheduledExecutor();
+                remoteWriter.scheduleAtFixedRate(() -> target.remoteEdit(FAKE_USER, "remote-device"),
+                    0, (long) (1_000_000 / remoteEditsPerSecond), TimeUnit.MICROSECONDS);
+            }
+        }
+
+        LoadGenerator generator = new LoadGenerator(baseUrl, concurrency, expectedIntervalMicros);
+        try {
+            if (!seeded) {
+                generator.preload(dataset);
+            }
+            generator.loadPool();
+
+            if (warmup > 0) {
+                System.out.println("Warming up with " + warmup + " steps...");
+                List<Workload.Step> warmupSteps = Workload.generate(
+                    Workload.parseMix("list=80,add=20"), warmup, 0, seed + 1);
+                new LoadGenerator(baseUrl, concurrency, 0).runClosedLoop(warmupSteps);
+            }
+
+            boolean openLoop = steps.stream().anyMatch(step -> step.offsetNanos > 0);
+            System.out.println("Running " + steps.size() + " steps, " + (openLoop ? "open" : "closed")
+                + " loop, concurrency " + concurrency);
+            long elapsedNanos = openLoop ? generator.runOpenLoop(steps) : generator.runClosedLoop(steps);
+            generator.report(elapsedNanos, openLoop);
+        } finally {
+            if (remoteWriter != null) remoteWriter.shutdownNow();
+            if (server != null) server.stop();
+            if (fakeFirestore != null) fakeFirestore.close();
+        }
+    }
+
+    private long runOpenLoop(List<Workload.Step> steps) throws InterruptedException {
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        CountDownLatch done = new CountDownLatch(steps.size());
+        long start = System.nanoTime();
+
+        for (Workload.Step step : steps) {
+            long intendedStart = start + step.offsetNanos;
+            long wait;
+            while ((wait = intendedStart - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            workers.execute(() -> {
+                try {
+                    execute(step, intendedStart);
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+
+        done.await();
+        long elapsed = System.nanoTime() - start;
+        workers.shutdown();
+        return elapsed;
+    }
+
+    private long runClosedLoop(List<Workload.Step> steps) throws InterruptedException {
+        AtomicInteger next = new AtomicInteger();
+        List<Thread> threads = new ArrayList<>();
+        long start = System.nanoTime();
+
+        for (int i = 0; i < concurrency; i++) {
+            Thread thread = new Thread(() -> {
+                int index;
+                while ((index = next.getAndIncrement()) < steps.size()) {
+                    execute(steps.get(index), System.nanoTime());
+                }
+            }, "loadtest-worker-" + i);
+            thread.start();
+            threads.add(thread);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        return System.nanoTime() - start;
+    }
+
+    private void execute(Workload.Step step, long intendedStartNanos) {
+        Workload.Op op = step.op;
+        boolean ok;
+        try {
+            ok = perform(step);
+        } catch (IOException | RuntimeException e) {
+            ok = false;
+        }
+
+        long micros = Math.max(1, (System.nanoTime() - intendedStartNanos) / 1000);
+        completed.incrementAndGet();
+        if (!ok) {
+            errors.get(op).incrementAndGet();
+        }
+        if (expectedIntervalMicros > 0) {
+            histograms.get(op).recordValueWithExpectedInterval(micros, expectedIntervalMicros);
+            overall.recordValueWithExpectedInterval(micros, expectedIntervalMicros);
+        } else {
+            histograms.get(op).recordValue(micros);
+            overall.recordValue(micros);
+        }
+    }
+
+    private boolean perform(Workload.Step step) throws IOException {
+        switch (step.op) {
+            case LIST:
+                return send("GET", "/api/tasks", null).status == 200;
+            case ADD: {
+                Response response = send("POST", "/api/tasks/add",
+                    "title=" + encode("load " + titleCounter.incrementAndGet())
+                        + "&due=" + LocalDate.now().plusDays(step.target % 30));
+                String id = Json.mapper().readTree(response.body).path("id").asText(null);
+                if (id != null) {
+                    pool.add(id);
+                }
+                return response.status == 200 && id != null;
+            }
+            case UPDATE: {
+                String id = pool.pick(step.target);
+                if (id == null) {
+                    return send("GET", "/api/tasks", null).status == 200;
+                }
+                boolean completed = step.target % 4 == 0;
+                Response response = send("POST", "/api/tasks/update",
+                    "id=" + encode(id) + "&title=" + encode("updated " + step.target)
+                        + "&completed=" + completed + "&due=" + LocalDate.now().plusDays(step.target % 30));
+                if (completed) {
+                    pool.markCompleted(id);
+                }
+                return response.status == 200;
+            }
+            case DELETE: {
+                String id = pool.take(step.target);
+                if (id == null) {
+                    return send("GET", "/api/tasks", null).status == 200;
+                }
+                return send("POST", "/api/tasks/delete", "id=" + encode(id)).status == 200;
+            }
+            case CLEAR:
+                pool.removeCompleted();
+                return send("POST", "/api/tasks/clear", "").status == 200;
+            default:
+                throw new IllegalStateException("Unknown operation " + step.op);
+        }
+    }
+
+    private void preload(int dataset) throws InterruptedException {
+        if (dataset <= 0) return;
+        System.out.println("Preloading " + dataset + " tasks...");
+        List<Workload.Step> adds = new ArrayList<>(dataset);
+        for (int i = 0; i < dataset; i++) {
+            adds.add(new Workload.Step(0, Workload.Op.ADD, i));
+        }
+        new LoadGenerator(baseUrl, concurrency, 0).runClosedLoop(adds);
+    }
+
+    private void loadPool() throws IOException {
+        JsonNode tasks = Json.mapper().readTree(send("GET", "/api/tasks", null).body);
+        for (JsonNode task : tasks) {
+            pool.add(task.path("id").asText());
+            if (task.path("completed").asBoolean()) {
+                pool.markCompleted(task.path("id").asText());
+            }
+        }
+        System.out.println("Working set: " + pool.size() + " tasks");
+    }
+
+    private void report(long elapsedNanos, boolean openLoop) {
+        double seconds = elapsedNanos / 1e9;
+        System.out.println();
+        System.out.printf("Elapsed %.2f s, throughput %.1f ops/s%n", seconds, completed.get() / seconds);
+        System.out.println(openLoop
+            ? "Latency from intended start (coordinated-omission corrected), ms:"
+            : expectedIntervalMicros > 0
+                ? "Latency with expected-interval correction (" + expectedIntervalMicros + " us), ms:"
+                : "Service time (closed loop, uncorrected), ms:");
+        System.out.printf("%-8s %9s %7s %9s %9s %9s %9s%n", "op", "count", "errors", "p50", "p99", "p999", "max");
+        for (Workload.Op op : Workload.Op.values()) {
+            Histogram histogram = histograms.get(op);
+            if (histogram.getTotalCount() > 0) {
+                printRow(op.name().toLowerCase(), histogram, errors.get(op).get());
+            }
+        }
+        long totalErrors = errors.values().stream().mapToLong(AtomicLong::get).sum();
+        printRow("all", overall, totalErrors);
+    }
+
+    private static void printRow(String name, Histogram histogram, long errorCount) {
+        System.out.printf("%-8s %9d %7d %9.3f %9.3f %9.3f %9.3f%n", name, histogram.getTotalCount(), errorCount,
+            histogram.getValueAtPercentile(50) / 1000.0,
+            histogram.getValueAtPercentile(99) / 1000.0,
+            histogram.getValueAtPercentile(99.9) / 1000.0,
+            histogram.getMaxValue() / 1000.0);
+    }
+
+    private Response send(String method, String path, String form) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(baseUrl + path).openConnection();
+        connection.setRequestMethod(method);
+        connection.setConnectTimeout(10_000);
+        connection.setReadTimeout(60_000);
+        if (form != null && "POST".equals(method)) {
+            byte[] body = form.getBytes(StandardCharsets.UTF_8);
+            connection.setDoOutput(true);
+            connection.setRequestProperty("Content-Type", "application/x-www-form-urlencoded");
+            connection.setFixedLengthStreamingMode(body.length);
+            try (OutputStream os = connection.getOutputStream()) {
+                os.write(body);
+            }
+        }
+
+        int status = connection.getResponseCode();
+        InputStream stream = status >= 400 ? connection.getErrorStream() : connection.getInputStream();
+        return new Response(status, stream == null ? "" : readAll(stream));
+    }
+
+    private static String readAll(InputStream inputStream) throws IOException {
+        try (InputStream in = inputStream) {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            byte[] data = new byte[8192];
+            int nRead;
+            while ((nRead = in.read(data, 0, data.length)) != -1) {
+                buffer.write(data, 0, nRead);
+            }
+            return new String(buffer.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static String encode(String value) throws IOException {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8.name());
+    }
+
+    private static List<Task> generateTasks(int count) {
+        List<Task> tasks = new ArrayList<>(count);
+        LocalDate today = LocalDate.now();
+        for (int i = 0; i < count; i++) {
+            Task task = new Task("seed " + i, today.plusDays(i % 60));
+            task.setCompleted(i % 5 == 0);
+            task.bumpRevision("loadtest-seed");
+            tasks.add(task);
+        }
+        return tasks;
+    }
+
+    private static Map<String, String> parseArgs(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument: " + arg);
+            }
+            String[] keyValue = arg.substring(2).split("=", 2);
+            options.put(keyValue[0], keyValue.length == 2 ? keyValue[1] : "true");
+        }
+        return options;
+    }
+
+    private static final class Response {
+        final int status;
+        final String body;
+
+        Response(int status, String body) {
+            this.status = status;
+            this.body = body;
+        }
+    }
+
+    /**
+     * Ids the workload can target. Swap-remove keeps picks and removals O(1).
+     */
+    private static final class TaskPool {
+        private final List<String> ids = new ArrayList<>();
+        private final Map<String, Integer> positions = new HashMap<>();
+        private final Set<String> completed = new HashSet<>();
+
+        synchronized void add(String id) {
+            if (positions.containsKey(id)) return;
+            positions.put(id, ids.size());
+            ids.add(id);
+        }
+
+        synchronized String pick(int target) {
+            return ids.isEmpty() ? null : ids.get(target % ids.size());
+        }
+
+        synchronized String take(int target) {
+            String id = pick(target);
+            if (id != null) {
+                remove(id);
+            }
+            return id;
+        }
+
+        synchronized void markCompleted(String id) {
+            completed.add(id);
+        }
+
+        synchronized void removeCompleted() {
+            for (String id : new ArrayList<>(completed)) {
+                remove(id);
+            }
+            completed.clear();
+        }
+
+        synchronized int size() {
+            return ids.size();
+        }
+
+        private void remove(String id) {
+            Integer position = positions.remove(id);
+            if (position == null) return;
+            String last = ids.remove(ids.size() - 1);
+            if (!last.equals(id)) {
+                ids.set(position, last);
+                positions.put(last, position);
+            }
+            completed.remove(id);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.todoapp.loadtest;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * A replayable sequence of API operations. Each step carries its intended start offset
+ * (zero for closed-loop runs) and a random target used to pick which existing task an
+ * update or delete touches, so a recorded trace replays the same shape of load.
+ */
+public class Workload {
+    private static final String TRACE_HEADER = "# todo-loadtest trace v1";
+
+    public enum Op { LIST, ADD, UPDATE, DELETE, CLEAR }
+
+    public static final class Step {
+        final long offsetNanos;
+        final Op op;
+        final int target;
+
+        Step(long offsetNanos, Op op, int target) {
+            this.offsetNanos = offsetNanos;
+            this.op = op;
+            this.target = target;
+        }
+    }
+
+    /**
+     * Parses a mix such as {@code list=60,add=20,update=15,delete=4,clear=1}; weights are relative.
+     */
+    public static Map<Op, Integer> parseMix(String spec) {
+        Map<Op, Integer> mix = new EnumMap<>(Op.class);
+        for (String part : spec.split(",")) {
+            String[] keyValue = part.trim().split("=", 2);
+            if (keyValue.length != 2) {
+                throw new IllegalArgumentException("Invalid mix entry: " + part);
+            }
+            int weight = Integer.parseInt(keyValue[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("Mix weight must not be negative: " + part);
+            }
+            mix.put(Op.valueOf(keyValue[0].trim().toUpperCase(Locale.ROOT)), weight);
+        }
+        if (mix.values().stream().mapToInt(Integer::intValue).sum() == 0) {
+            throw new IllegalArgumentException("Mix has no operations: " + spec);
+        }
+        return mix;
+    }
+
+    /**
+     * Generates {@code count} steps. With {@code ratePerSecond > 0} steps are spaced evenly
+     * (open loop); otherwise every offset is zero and workers issue them back to back.
+     */
+    public static List<Step> generate(Map<Op, Integer> mix, int count, double ratePerSecond, long seed) {
+        Random random = new Random(seed);
+        int total = mix.values().stream().mapToInt(Integer::intValue).sum();
+        double intervalNanos = ratePerSecond > 0 ? 1_000_000_000.0 / ratePerSecond : 0;
+
+        List<Step> steps = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int roll = random.nextInt(total);
+            Op op = null;
+            for (Map.Entry<Op, Integer> entry : mix.entrySet()) {
+                roll -= entry.getValue();
+                if (roll < 0) {
+                    op = entry.getKey();
+                    break;
+                }
+            }
+            steps.add(new Step((long) (i * intervalNanos), op, random.nextInt(Integer.MAX_VALUE)));
+        }
+        return steps;
+    }
+
+    public static void record(List<Step> steps, Path path) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            writer.write(TRACE_HEADER);
+            writer.newLine();
+            for (Step step : steps) {
+                writer.write(step.offsetNanos + "\t" + step.op + "\t" + step.target);
+                writer.newLine();
+            }
+        }
+    }
+
+    public static List<Step> replay(Path path) throws IOException {
+        List<Step> steps = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty() || line.startsWith("#")) continue;
+                String[] fields = line.split("\t");
+                if (fields.length != 3) {
+                    throw new IOException("Malformed trace line: " + line);
+                }
+                steps.add(new Step(Long.parseLong(fields[0]), Op.valueOf(fields[1]), Integer.parseInt(fields[2])));
+            }
+        }
+        return steps;
+    }
+}
@@ -0,0 +1,99 @@
+package com.todoapp;
+
+import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutures;
+import com.google.cloud.firestore.CollectionReference;
+import com.google.cloud.firestore.DocumentChange;
+import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.ListenerRegistration;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+/**
+ * {@link FirestoreGateway} backed by the Firebase Admin SDK.
+ */
+public class CloudFirestoreGateway implements FirestoreGateway {
+    private final Firestore firestore;
+
+    public CloudFirestoreGateway(Firestore firestore) {
+        this.firestore = firestore;
+    }
+
+    @Override
+    public ApiFuture<Void> set(String uid, String taskId, Map<String, Object> data) {
+        return ApiFutures.transform(document(uid, taskId).set(data), result -> null, Runnable::run);
+    }
+
+    @Override
+    public ApiFuture<Map<String, Object>> update(String uid, String taskId, UnaryOperator<Map<String, Object>> update) {
+        DocumentReference docRef = document(uid, taskId);
+        // The transaction body runs on Firestore's own executor, where blocking on the read is expected
+        return firestore.runTransaction(transaction -> {
+            DocumentSnapshot snapshot = transaction.get(docRef).get();
+            Map<String, Object> current = snapshot.exists() ? snapshot.getData() : null;
+            Map<String, Object> next = update.apply(current);
+            if (next == null) {
+                return current;
+            }
+            transaction.set(docRef, next);
+            return next;
+        });
+    }
+
+    @Override
+    public ApiFuture<Void> delete(String uid, String taskId) {
+        return ApiFutures.transform(document(uid, taskId).delete(), result -> null, Runnable::run);
+    }
+
+    @Override
+    public ApiFuture<List<Map<String, Object>>> list(String uid) {
+        return ApiFutures.transform(tasks(uid).get(), snapshot -> {
+            List<Map<String, Object>> documents = new ArrayList<>();
+            for (QueryDocumentSnapshot document : snapshot.getDocuments()) {
+                documents.add(document.getData());
+            }
+            return documents;
+        }, Runnable::run);
+    }
+
+    @Override
+    public ListenerRegistration listen(String uid, ChangeListener listener) {
+        return tasks(uid).addSnapshotListener((snapshot, error) -> {
+            if (error != null) {
+                listener.onError(error);
+                return;
+            }
+            if (snapshot == null) return;
+
+            List<Map<String, Object>> changed = new ArrayList<>();
+            List<String> removedIds = new ArrayList<>();
+            for (DocumentChange change : snapshot.getDocumentChanges()) {
+                if (change.getType() == DocumentChange.Type.REMOVED) {
+                    removedIds.add(change.getDocument().getId());
+                } else {
+                    changed.add(change.getDocument().getData());
+                }
+            }
+            listener.onChanges(changed, removedIds);
+        });
+    }
+
+    @Override
+    public void close() throws Exception {
+        firestore.close();
+    }
+
+    private CollectionReference tasks(String uid) {
+        return firestore.collection("users").document(uid).collection("tasks");
+    }
+
+    private DocumentReference document(String uid, String taskId) {
+        return tasks(uid).document(taskId);
+    }
+}
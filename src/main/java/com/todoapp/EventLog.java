@@ -0,0 +1,86 @@
+package com.todoapp;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Bounded in-memory stream of task notifications. Clients poll with the last sequence
+ * number they saw; events older than the buffer are dropped.
+ */
+public class EventLog {
+    private final int capacity;
+    private final Deque<Event> events = new ArrayDeque<>();
+    private long nextSeq = 1;
+
+    public EventLog(int capacity) {
+        this.capacity = capacity;
+    }
+
+    public synchronized Event publish(String type, Task task) {
+        Event event = new Event(nextSeq++, type, task.getId(), task.getTitle(), task.getDue());
+        events.addLast(event);
+        if (events.size() > capacity) {
+            events.removeFirst();
+        }
+        return event;
+    }
+
+    /**
+     * A cursor at or past the next sequence number was issued before a restart, so it gets
+     * every buffered event instead of nothing until the counter catches up.
+     */
+    public synchronized List<Event> since(long afterSeq) {
+        if (afterSeq >= nextSeq) {
+            afterSeq = 0;
+        }
+        List<Event> result = new ArrayList<>();
+        for (Event event : events) {
+            if (event.seq > afterSeq) {
+                result.add(event);
+            }
+        }
+        return result;
+    }
+
+    public static class Event {
+        @JsonProperty("seq")
+        private final long seq;
+
+        @JsonProperty("type")
+        private final String type;
+
+        @JsonProperty("taskId")
+        private final String taskId;
+
+        @JsonProperty("title")
+        private final String title;
+
+        @JsonProperty("due")
+        @JsonFormat(pattern = "yyyy-MM-dd")
+        private final LocalDate due;
+
+        @JsonProperty("at")
+        @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss.SSS")
+        private final LocalDateTime at;
+
+        Event(long seq, String type, String taskId, String title, LocalDate due) {
+            this.seq = seq;
+            this.type = type;
+            this.taskId = taskId;
+            this.title = title;
+            this.due = due;
+            this.at = LocalDateTime.now();
+        }
+
+        public long getSeq() { return seq; }
+        public String getType() { return type; }
+        public String getTaskId() { return taskId; }
+    }
+}
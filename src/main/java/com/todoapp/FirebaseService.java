@@ -2,9 +2,8 @@ package com.todoapp;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.google.auth.oauth2.GoogleCredentials;
-import com.google.cloud.firestore.*;
+import com.google.cloud.firestore.ListenerRegistration;
 import com.google.firebase.FirebaseApp;
 import com.google.firebase.FirebaseOptions;
 import com.google.firebase.cloud.FirestoreClient;
@@ -13,32 +12,58 @@ import java.io.FileInputStream;
 import java.io.IOException;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutionException;
 
 public class FirebaseService {
-    private FirebaseApp firebaseApp;
-    private Firestore firestore;
+    // Approximate bytes of cached task data kept across all users
+    private static final long CACHE_MAX_WEIGHT = 4 * 1024 * 1024;
+    private static final long CACHE_TTL_MILLIS = 5 * 60 * 1000;
+    private static final int RPC_THREADS = 4;
+    private static final int RPC_MAX_IN_FLIGHT = 64;
+    private static final int RPC_MAX_PENDING = 1024;
+    private static final long RPC_TIMEOUT_MILLIS = 10_000;
+
+    // Set on the firebase-init thread, read on HTTP, listener and scheduler threads
+    private volatile FirebaseApp firebaseApp;
+    private volatile FirestoreGateway gateway;
     private final ObjectMapper objectMapper;
-    private String currentUserId;
-    private boolean isInitialized = false;
+    private volatile String currentUserId;
+    private volatile boolean isInitialized = false;
+    private volatile ListenerRegistration listenerRegistration;
+    private volatile String subscribedUserId;
+    // Per-user task collections, filled by loadTasks and the listener's initial snapshot
+    private final ReadThroughCache<String, List<Task>> taskCache =
+        new ReadThroughCache<>(CACHE_MAX_WEIGHT, CACHE_TTL_MILLIS, FirebaseService::estimateSize);
+    private final FirestoreRpcExecutor rpcExecutor =
+        new FirestoreRpcExecutor(RPC_THREADS, RPC_MAX_IN_FLIGHT, RPC_MAX_PENDING);
 
     public FirebaseService() {
-        this.objectMapper = new ObjectMapper();
-        this.objectMapper.registerModule(new JavaTimeModule());
+        this(null);
+    }
+
+    /**
+     * Talks to {@code gateway} instead of Cloud Firestore; {@link #initialize} then needs no credentials.
+     */
+    public FirebaseService(FirestoreGateway gateway) {
+        this.objectMapper = Json.mapper();
+        this.gateway = gateway;
     }
 
-    public boolean initialize(String serviceAccountPath) {
+    public synchronized boolean initialize(String serviceAccountPath) {
         try {
             if (isInitialized) return true;
 
-            GoogleCredentials credentials = GoogleCredentials.fromStream(new FileInputStream(serviceAccountPath));
-            FirebaseOptions options = FirebaseOptions.builder()
-                .setCredentials(credentials)
-                .build();
+            if (gateway == null) {
+                GoogleCredentials credentials = GoogleCredentials.fromStream(new FileInputStream(serviceAccountPath));
+                FirebaseOptions options = FirebaseOptions.builder()
+                    .setCredentials(credentials)
+                    .build();
 
-            firebaseApp = FirebaseApp.initializeApp(options);
-            firestore = FirestoreClient.getFirestore(firebaseApp);
+                firebaseApp = FirebaseApp.initializeApp(options);
+                gateway = new CloudFirestoreGateway(FirestoreClient.getFirestore(firebaseApp));
+            }
+            // Last, so a thread that sees it also sees the gateway
             isInitialized = true;
+            StartupMetrics.mark("firebaseReady");
             return true;
         } catch (IOException e) {
             System.err.println("Failed to initialize Firebase: " + e.getMessage());
@@ -55,7 +80,7 @@ public class FirebaseService {
     }
 
     public boolean isInitialized() {
-        return isInitialized && firestore != null;
+        return isInitialized && gateway != null;
     }
 
     public CompletableFuture<Void> addTaskToFirestore(Task task) {
@@ -63,43 +88,43 @@ public class FirebaseService {
             return CompletableFuture.completedFuture(null);
         }
 
-        return CompletableFuture.runAsync(() -> {
-            try {
-                DocumentReference docRef = firestore
-                    .collection("users")
-                    .document(currentUserId)
-                    .collection("tasks")
-                    .document(task.getId());
-                
-                Map<String, Object> data = convertTaskToMap(task);
-                data.put("ownerId", currentUserId);
-                docRef.set(data).get();
-            } catch (InterruptedException | ExecutionException e) {
-                throw new RuntimeException("Failed to add task to Firestore", e);
-            }
-        });
+        String userId = currentUserId;
+        return rpcExecutor.call("add task to Firestore", () -> {
+            Map<String, Object> data = convertTaskToMap(task);
+            data.put("ownerId", userId);
+            return gateway.set(userId, task.getId(), data);
+        }, result -> {
+            taskCache.invalidate(userId);
+            return (Void) null;
+        }, RPC_TIMEOUT_MILLIS);
     }
 
-    public CompletableFuture<Void> updateTaskInFirestore(Task task) {
+    /**
+     * Writes a local edit inside a transaction, resolved against the stored copy with
+     * {@link Task#resolveAgainst}: an edit that raced a change from another device is kept if
+     * it is the later one, renumbered past the remote revision, instead of being dropped.
+     * Returns the version Firestore holds afterwards so the caller can adopt it.
+     */
+    public CompletableFuture<Task> updateTaskInFirestore(Task task) {
         if (!isInitialized || currentUserId == null) {
-            return CompletableFuture.completedFuture(null);
+            return CompletableFuture.completedFuture(task);
         }
 
-        return CompletableFuture.runAsync(() -> {
-            try {
-                DocumentReference docRef = firestore
-                    .collection("users")
-                    .document(currentUserId)
-                    .collection("tasks")
-                    .document(task.getId());
-                
-                Map<String, Object> data = convertTaskToMap(task);
-                data.put("ownerId", currentUserId);
-                docRef.set(data, SetOptions.merge()).get();
-            } catch (InterruptedException | ExecutionException e) {
-                throw new RuntimeException("Failed to update task in Firestore", e);
+        String userId = currentUserId;
+        return rpcExecutor.call("update task in Firestore", () -> gateway.update(userId, task.getId(), current -> {
+            Task remote = current != null ? convertMapToTask(current) : null;
+            Task winner = task.resolveAgainst(remote);
+            if (winner == remote) {
+                return null;
             }
-        });
+
+            Map<String, Object> data = convertTaskToMap(winner);
+            data.put("ownerId", userId);
+            return data;
+        }), stored -> {
+            taskCache.invalidate(userId);
+            return convertMapToTask(stored);
+        }, RPC_TIMEOUT_MILLIS);
     }
 
     public CompletableFuture<Void> deleteTaskFromFirestore(String taskId) {
@@ -107,53 +132,108 @@ public class FirebaseService {
             return CompletableFuture.completedFuture(null);
         }
 
-        return CompletableFuture.runAsync(() -> {
-            try {
-                DocumentReference docRef = firestore
-                    .collection("users")
-                    .document(currentUserId)
-                    .collection("tasks")
-                    .document(taskId);
-                docRef.delete().get();
-            } catch (InterruptedException | ExecutionException e) {
-                throw new RuntimeException("Failed to delete task from Firestore", e);
-            }
-        });
+        String userId = currentUserId;
+        return rpcExecutor.call("delete task from Firestore", () -> gateway.delete(userId, taskId), result -> {
+            taskCache.invalidate(userId);
+            return (Void) null;
+        }, RPC_TIMEOUT_MILLIS);
     }
 
-    public CompletableFuture<List<Task>> subscribeToTasks(String uid, java.util.function.Consumer<List<Task>> onTasks) {
+    /**
+     * Listens to the user's task collection. The first callback carries the full collection,
+     * later callbacks only carry the documents that changed, so reconciliation stays incremental.
+     * The returned future completes with the initial snapshot.
+     */
+    public CompletableFuture<List<Task>> subscribeToTasks(String uid, TaskChangeListener onChanges) {
         if (!isInitialized) {
             return CompletableFuture.completedFuture(new ArrayList<>());
         }
 
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                CollectionReference tasksRef = firestore
-                    .collection("users")
-                    .document(uid)
-                    .collection("tasks");
-                
-                QuerySnapshot snapshot = tasksRef.get().get();
-                List<Task> tasks = new ArrayList<>();
-                
-                for (QueryDocumentSnapshot document : snapshot.getDocuments()) {
-                    Task task = convertMapToTask(document.getData());
-                    tasks.add(task);
+        unsubscribe();
+        subscribedUserId = uid;
+        CompletableFuture<List<Task>> initial = new CompletableFuture<>();
+        listenerRegistration = gateway.listen(uid, new FirestoreGateway.ChangeListener() {
+            @Override
+            public void onChanges(List<Map<String, Object>> documents, List<String> removedIds) {
+                List<Task> changed = new ArrayList<>(documents.size());
+                for (Map<String, Object> document : documents) {
+                    changed.add(convertMapToTask(document));
                 }
-                
-                tasks.sort((a, b) -> b.getUpdatedAt().compareTo(a.getUpdatedAt()));
-                onTasks.accept(tasks);
-                return tasks;
-            } catch (InterruptedException | ExecutionException e) {
-                throw new RuntimeException("Failed to load tasks from Firestore", e);
+
+                if (initial.isDone()) {
+                    taskCache.invalidate(uid);
+                } else {
+                    taskCache.put(uid, Collections.unmodifiableList(new ArrayList<>(changed)));
+                }
+                onChanges.onChanges(changed, removedIds);
+                initial.complete(changed);
+            }
+
+            @Override
+            public void onError(Throwable error) {
+                System.err.println("Firestore listener error: " + error.getMessage());
+                initial.completeExceptionally(error);
             }
         });
+        return initial;
+    }
+
+    public boolean isSubscribedTo(String uid) {
+        return listenerRegistration != null && uid.equals(subscribedUserId);
+    }
+
+    public void unsubscribe() {
+        if (listenerRegistration != null) {
+            listenerRegistration.remove();
+            listenerRegistration = null;
+        }
+        subscribedUserId = null;
+    }
+
+    /**
+     * One-shot read of the user's tasks, served from the cache while the entry is fresh.
+     * Local writes and remote change events invalidate the entry. Only a repeated
+     * initialization for an already subscribed user reads this way; the listener keeps
+     * the local list current otherwise.
+     */
+    public CompletableFuture<List<Task>> loadTasks(String uid) {
+        if (!isInitialized) {
+            return CompletableFuture.completedFuture(new ArrayList<>());
+        }
+
+        return taskCache.get(uid, key -> rpcExecutor.call("load tasks from Firestore", () -> gateway.list(key), documents -> {
+            List<Task> tasks = new ArrayList<>(documents.size());
+            for (Map<String, Object> document : documents) {
+                tasks.add(convertMapToTask(document));
+            }
+            return Collections.unmodifiableList(tasks);
+        }, RPC_TIMEOUT_MILLIS)).thenApply(ArrayList::new);
+    }
+
+    public Map<String, Object> getCacheStats() {
+        return taskCache.stats();
+    }
+
+    private static int estimateSize(List<Task> tasks) {
+        int size = 64;
+        for (Task task : tasks) {
+            // Fixed fields plus UTF-16 title
+            size += 160 + (task.getTitle() == null ? 0 : task.getTitle().length() * 2);
+        }
+        return size;
+    }
+
+    public interface TaskChangeListener {
+        void onChanges(List<Task> changed, List<String> removedIds);
     }
 
     private Map<String, Object> convertTaskToMap(Task task) {
         try {
             String json = objectMapper.writeValueAsString(task);
-            return objectMapper.readValue(json, new TypeReference<Map<String, Object>>() {});
+            Map<String, Object> data = objectMapper.readValue(json, new TypeReference<Map<String, Object>>() {});
+            // Sync bookkeeping of this device only
+            data.remove("syncedRevision");
+            return data;
         } catch (Exception e) {
             throw new RuntimeException("Failed to convert task to map", e);
         }
@@ -169,9 +249,12 @@ public class FirebaseService {
     }
 
     public void close() {
-        if (firestore != null) {
+        unsubscribe();
+        taskCache.invalidateAll();
+        rpcExecutor.shutdown();
+        if (gateway != null) {
             try {
-                firestore.close();
+                gateway.close();
             } catch (Exception e) {
                 System.err.println("Error closing Firestore connection: " + e.getMessage());
             }
@@ -0,0 +1,42 @@
+package com.todoapp;
+
+import com.google.api.core.ApiFuture;
+import com.google.cloud.firestore.ListenerRegistration;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+/**
+ * The Firestore operations FirebaseService issues, on users/{uid}/tasks documents as plain maps.
+ * Every call returns an {@link ApiFuture}, so the RPC executor, timeouts and read cache above
+ * it behave the same against Cloud Firestore and against an in-process stand-in.
+ */
+public interface FirestoreGateway {
+
+    ApiFuture<Void> set(String uid, String taskId, Map<String, Object> data);
+
+    /**
+     * Reads the document and writes what {@code update} returns for it in one transaction.
+     * {@code update} gets null for a missing document, returns null to leave it alone, and may
+     * run more than once. Completes with the document as stored afterwards.
+     */
+    ApiFuture<Map<String, Object>> update(String uid, String taskId, UnaryOperator<Map<String, Object>> update);
+
+    ApiFuture<Void> delete(String uid, String taskId);
+
+    ApiFuture<List<Map<String, Object>>> list(String uid);
+
+    /**
+     * The first callback carries every document, later ones only the documents that changed.
+     */
+    ListenerRegistration listen(String uid, ChangeListener listener);
+
+    void close() throws Exception;
+
+    interface ChangeListener {
+        void onChanges(List<Map<String, Object>> changed, List<String> removedIds);
+
+        void onError(Throwable error);
+    }
+}
@@ -0,0 +1,179 @@
+package com.todoapp;
+
+import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutureCallback;
+import com.google.api.core.ApiFutures;
+
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Runs Firestore RPCs without parking threads: each {@link ApiFuture} is bridged to a
+ * {@link CompletableFuture} through a callback on a small dedicated pool, never the common pool.
+ * At most {@code maxInFlight} RPCs are outstanding; further calls wait in a bounded queue
+ * and start as earlier ones finish. Every call gets a timeout, and cancelling the returned
+ * future cancels the underlying RPC.
+ */
+public class FirestoreRpcExecutor {
+    private final ThreadPoolExecutor callbackExecutor;
+    private final ScheduledThreadPoolExecutor timer;
+    private final int maxInFlight;
+    private final int maxPending;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final Queue<Runnable> pending = new ConcurrentLinkedQueue<>();
+
+    public FirestoreRpcExecutor(int threads, int maxInFlight, int maxPending) {
+        this.maxInFlight = maxInFlight;
+        this.maxPending = maxPending;
+        this.callbackExecutor = new ThreadPoolExecutor(
+            threads, threads, 30, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(maxInFlight + maxPending),
+            daemonThreads("firestore-callback"));
+        this.callbackExecutor.allowCoreThreadTimeOut(true);
+        this.timer = new ScheduledThreadPoolExecutor(1, daemonThreads("firestore-timeout"));
+        this.timer.setRemoveOnCancelPolicy(true);
+    }
+
+    public <T> CompletableFuture<T> call(String description, Supplier<ApiFuture<T>> rpc, long timeoutMillis) {
+        return call(description, rpc, Function.identity(), timeoutMillis);
+    }
+
+    /**
+     * Starts the RPC produced by {@code rpc} once a slot is free and maps its result on the
+     * callback pool. The supplier should only issue the call (e.g. {@code docRef.set(data)});
+     * it must not block. Failures are wrapped as "Failed to " + description.
+     */
+    public <T, R> CompletableFuture<R> call(String description, Supplier<ApiFuture<T>> rpc,
+                                            Function<T, R> mapper, long timeoutMillis) {
+        CompletableFuture<R> result = new CompletableFuture<>();
+
+        ScheduledFuture<?> timeout = timer.schedule(
+            () -> result.completeExceptionally(new TimeoutException("Timed out after " + timeoutMillis + " ms: " + description)),
+            timeoutMillis, TimeUnit.MILLISECONDS);
+        result.whenComplete((value, error) -> timeout.cancel(false));
+
+        Runnable start = () -> start(description, rpc, mapper, result);
+        if (tryAcquire()) {
+            start.run();
+        } else if (pendingCount.incrementAndGet() > maxPending) {
+            pendingCount.decrementAndGet();
+            result.completeExceptionally(new RejectedExecutionException("Too many pending Firestore calls"));
+        } else {
+            pending.add(start);
+            // A slot may have been released between tryAcquire and add
+            drainPending();
+        }
+        return result;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public int getPending() {
+        return pendingCount.get();
+    }
+
+    public void shutdown() {
+        timer.shutdownNow();
+        callbackExecutor.shutdown();
+    }
+
+    private <T, R> void start(String description, Supplier<ApiFuture<T>> rpc,
+                              Function<T, R> mapper, CompletableFuture<R> result) {
+        if (result.isDone()) {
+            // Timed out or cancelled while queued: never issue the RPC
+            release();
+            return;
+        }
+
+        ApiFuture<T> future;
+        try {
+            future = rpc.get();
+        } catch (RuntimeException e) {
+            release();
+            result.completeExceptionally(new RuntimeException("Failed to " + description, e));
+            return;
+        }
+
+        result.whenComplete((value, error) -> {
+            if (!future.isDone()) {
+                future.cancel(true);
+            }
+        });
+
+        try {
+            ApiFutures.addCallback(future, new ApiFutureCallback<T>() {
+                @Override
+                public void onSuccess(T value) {
+                    release();
+                    try {
+                        result.complete(mapper.apply(value));
+                    } catch (RuntimeException e) {
+                        result.completeExceptionally(new RuntimeException("Failed to " + description, e));
+                    }
+                }
+
+                @Override
+                public void onFailure(Throwable error) {
+                    release();
+                    result.completeExceptionally(new RuntimeException("Failed to " + description, error));
+                }
+            }, callbackExecutor);
+        } catch (RejectedExecutionException e) {
+            release();
+            result.completeExceptionally(e);
+        }
+    }
+
+    private boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= maxInFlight) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private void release() {
+        inFlight.decrementAndGet();
+        drainPending();
+    }
+
+    private void drainPending() {
+        while (!pending.isEmpty() && tryAcquire()) {
+            Runnable next = pending.poll();
+            if (next == null) {
+                inFlight.decrementAndGet();
+                return;
+            }
+            pendingCount.decrementAndGet();
+            next.run();
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
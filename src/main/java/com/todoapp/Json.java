@@ -0,0 +1,37 @@
+package com.todoapp;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Single shared ObjectMapper. Jackson mappers are thread-safe once configured and cache
+ * their (de)serializers, so one instance avoids rebuilding that state per service.
+ */
+public final class Json {
+    private static final ObjectMapper MAPPER = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    private Json() {
+    }
+
+    public static ObjectMapper mapper() {
+        return MAPPER;
+    }
+
+    /**
+     * Builds the Task serializers and deserializers ahead of the first request.
+     */
+    public static void warmUp() {
+        try {
+            Task sample = new Task("warm-up", LocalDate.now());
+            String json = MAPPER.writeValueAsString(Collections.singletonList(sample));
+            MAPPER.readValue(json, new TypeReference<List<Task>>() {});
+        } catch (Exception e) {
+            System.err.println("ObjectMapper warm-up failed: " + e.getMessage());
+        }
+    }
+}
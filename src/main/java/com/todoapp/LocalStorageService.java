@@ -1,8 +1,9 @@
 package com.todoapp;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 
 import java.io.IOException;
 import java.nio.file.Files;
@@ -10,20 +11,41 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
-public class LocalStorageService {
+/**
+ * JSON file engine: keeps the whole list in memory and rewrites data/tasks.json on every change.
+ */
+public class LocalStorageService implements TaskRepository {
     private static final String STORAGE_KEY = "todo.tasks.v1";
+    // Snapshots smaller than this are bound on the calling thread
+    private static final int PARALLEL_THRESHOLD_BYTES = 256 * 1024;
+    private static final int CHUNK_SIZE = 2048;
     private final ObjectMapper objectMapper;
     private final Path storagePath;
+    private List<Task> tasks;
 
     public LocalStorageService() {
-        this.objectMapper = new ObjectMapper();
-        this.objectMapper.registerModule(new JavaTimeModule());
-        this.storagePath = Paths.get("data", "tasks.json");
+        this(Paths.get("data", "tasks.json"));
+    }
+
+    public LocalStorageService(Path storagePath) {
+        this.objectMapper = Json.mapper();
+        this.storagePath = storagePath;
         
         try {
-            Files.createDirectories(storagePath.getParent());
+            Files.createDirectories(storagePath.toAbsolutePath().getParent());
         } catch (IOException e) {
             throw new RuntimeException("Failed to create storage directory", e);
         }
@@ -36,17 +58,94 @@ public class LocalStorageService {
 
         try {
             byte[] bytes = Files.readAllBytes(storagePath);
-            String json = new String(bytes, StandardCharsets.UTF_8);
-            if (json.trim().isEmpty()) {
+            if (isBlank(bytes)) {
                 return new ArrayList<>();
             }
-            return objectMapper.readValue(json, new TypeReference<List<Task>>() {});
+            if (bytes.length < PARALLEL_THRESHOLD_BYTES) {
+                return objectMapper.readValue(bytes, new TypeReference<List<Task>>() {});
+            }
+            return readChunked(bytes);
         } catch (IOException e) {
             System.err.println("Error loading tasks: " + e.getMessage());
             return new ArrayList<>();
         }
     }
 
+    private static boolean isBlank(byte[] bytes) {
+        for (byte b : bytes) {
+            if (b != ' ' && b != '\t' && b != '\n' && b != '\r') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Binding tasks (dates, UUID strings) dominates on large snapshots. This thread only
+     * streams the array to find where each element starts and ends, handing every run of
+     * CHUNK_SIZE elements to a short-lived pool as soon as it is found; no tree is built.
+     */
+    private List<Task> readChunked(byte[] bytes) throws IOException {
+        int threads = Math.max(1, Runtime.getRuntime().availableProcessors());
+        ExecutorService pool = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "snapshot-chunk");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try (JsonParser parser = objectMapper.getFactory().createParser(bytes)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                return new ArrayList<>();
+            }
+
+            List<Future<List<Task>>> futures = new ArrayList<>();
+            // Start and end byte offset of each element in the current chunk
+            int[] bounds = new int[CHUNK_SIZE * 2];
+            int count = 0;
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token == null) {
+                    throw new IOException("Unexpected end of task list");
+                }
+                bounds[count * 2] = (int) parser.getTokenLocation().getByteOffset();
+                parser.skipChildren();
+                bounds[count * 2 + 1] = (int) parser.getCurrentLocation().getByteOffset();
+                if (++count == CHUNK_SIZE) {
+                    futures.add(pool.submit(bindChunk(bytes, bounds, count)));
+                    bounds = new int[CHUNK_SIZE * 2];
+                    count = 0;
+                }
+            }
+            if (count > 0) {
+                futures.add(pool.submit(bindChunk(bytes, bounds, count)));
+            }
+
+            List<Task> tasks = new ArrayList<>(futures.size() * CHUNK_SIZE);
+            for (Future<List<Task>> future : futures) {
+                tasks.addAll(future.get());
+            }
+            return tasks;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while loading tasks", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Failed to parse tasks", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private Callable<List<Task>> bindChunk(byte[] bytes, int[] bounds, int count) {
+        return () -> {
+            List<Task> chunk = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                int start = bounds[i * 2];
+                chunk.add(objectMapper.readValue(bytes, start, bounds[i * 2 + 1] - start, Task.class));
+            }
+            return chunk;
+        };
+    }
+
     public void writeLocal(List<Task> tasks) {
         try {
             String json = objectMapper.writeValueAsString(tasks);
@@ -55,4 +154,58 @@ public class LocalStorageService {
             throw new RuntimeException("Failed to save tasks", e);
         }
     }
+
+    @Override
+    public synchronized List<Task> findAll() {
+        if (tasks == null) {
+            tasks = readLocal();
+        }
+        return new ArrayList<>(tasks);
+    }
+
+    @Override
+    public synchronized void save(Task task) {
+        saveAll(Collections.singletonList(task));
+    }
+
+    @Override
+    public synchronized void saveAll(Collection<Task> changed) {
+        if (changed.isEmpty()) return;
+        findAll();
+
+        Map<String, Task> pending = new LinkedHashMap<>();
+        for (Task task : changed) {
+            pending.put(task.getId(), task);
+        }
+        for (int i = 0; i < tasks.size() && !pending.isEmpty(); i++) {
+            Task replacement = pending.remove(tasks.get(i).getId());
+            if (replacement != null) {
+                tasks.set(i, replacement);
+            }
+        }
+        tasks.addAll(0, pending.values());
+        writeLocal(tasks);
+    }
+
+    @Override
+    public synchronized void delete(String taskId) {
+        findAll();
+        if (tasks.removeIf(task -> task.getId().equals(taskId))) {
+            writeLocal(tasks);
+        }
+    }
+
+    @Override
+    public synchronized void deleteAll(Collection<String> taskIds) {
+        findAll();
+        Set<String> ids = new HashSet<>(taskIds);
+        if (tasks.removeIf(task -> ids.contains(task.getId()))) {
+            writeLocal(tasks);
+        }
+    }
+
+    @Override
+    public void close() {
+        // Every change is already flushed to disk
+    }
 }
@@ -0,0 +1,173 @@
+package com.todoapp;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * Bounded read-through cache with per-entry TTL and LRU eviction.
+ * Capacity is measured in weight units supplied by the weigher (roughly bytes),
+ * so a few large entries cannot crowd the heap the way a count limit would allow.
+ * Loads are tagged with the generation current when they started, and their result
+ * is dropped if the key was written or invalidated while they were in flight.
+ */
+public class ReadThroughCache<K, V> {
+    // Keys whose last change is tracked individually; beyond this every in-flight load is treated as stale
+    private static final int MAX_TRACKED_CHANGES = 1024;
+
+    private final long maxWeight;
+    private final long ttlMillis;
+    private final ToIntFunction<V> weigher;
+    private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalWeight;
+
+    private long generation;
+    // Generation of the last write or invalidation per key, and of the last invalidateAll
+    private final Map<K, Long> changedAt = new HashMap<>();
+    private long allChangedAt;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public ReadThroughCache(long maxWeight, long ttlMillis, ToIntFunction<V> weigher) {
+        this.maxWeight = maxWeight;
+        this.ttlMillis = ttlMillis;
+        this.weigher = weigher;
+    }
+
+    /**
+     * Returns the cached value, or starts the loader on a miss and caches what it completes with.
+     * The load runs outside the lock so a slow Firestore read does not block other keys.
+     */
+    public CompletableFuture<V> get(K key, Function<K, CompletableFuture<V>> loader) {
+        V cached = getIfPresent(key);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        long started = generation();
+        return loader.apply(key).thenApply(loaded -> {
+            if (loaded != null) {
+                putIfUnchanged(key, loaded, started);
+            }
+            return loaded;
+        });
+    }
+
+    private synchronized long generation() {
+        return generation;
+    }
+
+    /**
+     * Caches a loaded value unless the key was written or invalidated after {@code generation}
+     * was captured, so a fetch that raced a write cannot cache the state from before it.
+     */
+    private synchronized boolean putIfUnchanged(K key, V value, long generation) {
+        Long keyChangedAt = changedAt.get(key);
+        if (allChangedAt > generation || (keyChangedAt != null && keyChangedAt > generation)) {
+            return false;
+        }
+        put(key, value);
+        return true;
+    }
+
+    public synchronized V getIfPresent(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        if (entry.expiresAt <= System.currentTimeMillis()) {
+            removeEntry(key);
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.value;
+    }
+
+    public synchronized void put(K key, V value) {
+        markChanged(key);
+        int weight = weigher.applyAsInt(value);
+        if (weight > maxWeight) {
+            removeEntry(key);
+            return;
+        }
+
+        Entry<V> previous = entries.put(key, new Entry<>(value, weight, System.currentTimeMillis() + ttlMillis));
+        if (previous != null) {
+            totalWeight -= previous.weight;
+        }
+        totalWeight += weight;
+        evictIfNeeded();
+    }
+
+    public synchronized void invalidate(K key) {
+        markChanged(key);
+        removeEntry(key);
+    }
+
+    public synchronized void invalidateAll() {
+        allChangedAt = ++generation;
+        changedAt.clear();
+        entries.clear();
+        totalWeight = 0;
+    }
+
+    public synchronized Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        long requests = hits + misses;
+        stats.put("hits", hits);
+        stats.put("misses", misses);
+        stats.put("hitRate", requests == 0 ? 0.0 : (double) hits / requests);
+        stats.put("evictions", evictions);
+        stats.put("entries", entries.size());
+        stats.put("weight", totalWeight);
+        stats.put("maxWeight", maxWeight);
+        return stats;
+    }
+
+    private void markChanged(K key) {
+        generation++;
+        if (changedAt.size() >= MAX_TRACKED_CHANGES && !changedAt.containsKey(key)) {
+            // Forget per-key history: loads started before now just go uncached
+            allChangedAt = generation;
+            changedAt.clear();
+        }
+        changedAt.put(key, generation);
+    }
+
+    private void evictIfNeeded() {
+        // Access order puts the least recently used entry first
+        Iterator<Map.Entry<K, Entry<V>>> it = entries.entrySet().iterator();
+        while (totalWeight > maxWeight && it.hasNext()) {
+            totalWeight -= it.next().getValue().weight;
+            it.remove();
+            evictions++;
+        }
+    }
+
+    private void removeEntry(K key) {
+        Entry<V> removed = entries.remove(key);
+        if (removed != null) {
+            totalWeight -= removed.weight;
+        }
+    }
+
+    private static class Entry<V> {
+        final V value;
+        final int weight;
+        final long expiresAt;
+
+        Entry(V value, int weight, long expiresAt) {
+            this.value = value;
+            this.weight = weight;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
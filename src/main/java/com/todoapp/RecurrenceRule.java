@@ -0,0 +1,239 @@
+package com.todoapp;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.BitSet;
+import java.util.Locale;
+
+/**
+ * Recurrence rule for a task's due date. Supported forms:
+ * <ul>
+ *   <li>{@code daily}, {@code weekly}, {@code monthly}, optionally with an interval: {@code weekly:2}.
+ *       Monthly rules carry the series' day of month once anchored ({@code monthly@31}), so a
+ *       series on the 31st returns to the 31st after a shorter month.</li>
+ *   <li>{@code cron:DOM MONTH DOW}, the date fields of a cron expression, e.g. {@code cron:* * MON-FRI}
+ *       or {@code cron:1,15 * *}. Fields accept {@code *}, lists, ranges and {@code /step}.</li>
+ * </ul>
+ */
+public final class RecurrenceRule {
+    private static final String[] DAY_NAMES = {"SUN", "MON", "TUE", "WED", "THU", "FRI", "SAT"};
+    private static final String[] MONTH_NAMES = {"JAN", "FEB", "MAR", "APR", "MAY", "JUN",
+        "JUL", "AUG", "SEP", "OCT", "NOV", "DEC"};
+    // Any satisfiable date pattern matches within eight years (Feb 29 across a skipped leap year like 2100)
+    private static final int MAX_SCAN_DAYS = 8 * 366 + 1;
+
+    private enum Unit { DAILY, WEEKLY, MONTHLY, CRON }
+
+    private final String spec;
+    private final Unit unit;
+    private final int interval;
+    // Day of month a monthly series falls on, 0 until anchored
+    private final int anchorDay;
+    private final BitSet daysOfMonth;
+    private final BitSet months;
+    private final BitSet daysOfWeek;
+    private final boolean domRestricted;
+    private final boolean dowRestricted;
+
+    private RecurrenceRule(String spec, Unit unit, int interval, int anchorDay,
+                           BitSet daysOfMonth, BitSet months, BitSet daysOfWeek,
+                           boolean domRestricted, boolean dowRestricted) {
+        this.spec = spec;
+        this.unit = unit;
+        this.interval = interval;
+        this.anchorDay = anchorDay;
+        this.daysOfMonth = daysOfMonth;
+        this.months = months;
+        this.daysOfWeek = daysOfWeek;
+        this.domRestricted = domRestricted;
+        this.dowRestricted = dowRestricted;
+    }
+
+    public static RecurrenceRule parse(String spec) {
+        if (spec == null || spec.trim().isEmpty()) {
+            throw new IllegalArgumentException("Recurrence rule is empty");
+        }
+        String normalized = spec.trim().toLowerCase(Locale.ROOT);
+
+        if (normalized.startsWith("cron:")) {
+            String[] fields = normalized.substring(5).trim().split("\\s+");
+            if (fields.length != 3) {
+                throw new IllegalArgumentException("Cron rule needs 3 fields (day-of-month month day-of-week): " + spec);
+            }
+            BitSet dom = parseField(fields[0], 1, 31, null);
+            BitSet mon = parseField(fields[1], 1, 12, MONTH_NAMES);
+            BitSet dow = parseField(fields[2], 0, 7, DAY_NAMES);
+            if (dow.get(7)) {
+                dow.set(0);
+            }
+            RecurrenceRule rule = new RecurrenceRule(normalized, Unit.CRON, 1, 0, dom, mon, dow,
+                !"*".equals(fields[0]), !"*".equals(fields[2]));
+            try {
+                rule.next(LocalDate.of(2000, 1, 1));
+            } catch (IllegalStateException e) {
+                // e.g. cron:30 2 * (February 30th)
+                throw new IllegalArgumentException("Recurrence rule never matches: " + spec);
+            }
+            return rule;
+        }
+
+        int anchorDay = 0;
+        int at = normalized.indexOf('@');
+        if (at >= 0) {
+            try {
+                anchorDay = Integer.parseInt(normalized.substring(at + 1));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid recurrence anchor: " + spec);
+            }
+            if (anchorDay < 1 || anchorDay > 31) {
+                throw new IllegalArgumentException("Recurrence anchor must be a day of month: " + spec);
+            }
+            normalized = normalized.substring(0, at);
+        }
+
+        String[] parts = normalized.split(":", 2);
+        Unit unit;
+        switch (parts[0]) {
+            case "daily": unit = Unit.DAILY; break;
+            case "weekly": unit = Unit.WEEKLY; break;
+            case "monthly": unit = Unit.MONTHLY; break;
+            default: throw new IllegalArgumentException("Unknown recurrence rule: " + spec);
+        }
+        int interval = 1;
+        if (parts.length == 2) {
+            try {
+                interval = Integer.parseInt(parts[1]);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid recurrence interval: " + spec);
+            }
+            if (interval < 1) {
+                throw new IllegalArgumentException("Recurrence interval must be positive: " + spec);
+            }
+        }
+        if (anchorDay > 0 && unit != Unit.MONTHLY) {
+            throw new IllegalArgumentException("Only monthly rules take an anchor day: " + spec);
+        }
+        return interval(unit, interval, anchorDay);
+    }
+
+    private static RecurrenceRule interval(Unit unit, int interval, int anchorDay) {
+        String canonical = unit.name().toLowerCase(Locale.ROOT)
+            + (interval == 1 ? "" : ":" + interval)
+            + (anchorDay == 0 ? "" : "@" + anchorDay);
+        return new RecurrenceRule(canonical, unit, interval, anchorDay, null, null, null, false, false);
+    }
+
+    /**
+     * Pins an unanchored monthly rule to the day of month of {@code date}; other rules are returned as is.
+     */
+    public RecurrenceRule anchoredTo(LocalDate date) {
+        if (unit != Unit.MONTHLY || anchorDay != 0 || date == null) {
+            return this;
+        }
+        return interval(unit, interval, date.getDayOfMonth());
+    }
+
+    /**
+     * The first occurrence strictly after {@code date}.
+     */
+    public LocalDate next(LocalDate date) {
+        switch (unit) {
+            case DAILY: return date.plusDays(interval);
+            case WEEKLY: return date.plusWeeks(interval);
+            case MONTHLY: {
+                LocalDate target = date.plusMonths(interval);
+                if (anchorDay == 0) {
+                    return target;
+                }
+                return target.withDayOfMonth(Math.min(anchorDay, target.lengthOfMonth()));
+            }
+            default:
+                LocalDate candidate = date.plusDays(1);
+                for (int i = 0; i < MAX_SCAN_DAYS; i++, candidate = candidate.plusDays(1)) {
+                    if (matches(candidate)) {
+                        return candidate;
+                    }
+                }
+                throw new IllegalStateException("Recurrence rule never matches: " + spec);
+        }
+    }
+
+    /**
+     * The first occurrence on or after {@code date}; interval rules treat {@code date} itself as an occurrence.
+     */
+    public LocalDate firstOnOrAfter(LocalDate date) {
+        return unit == Unit.CRON ? next(date.minusDays(1)) : date;
+    }
+
+    private boolean matches(LocalDate date) {
+        if (!months.get(date.getMonthValue())) {
+            return false;
+        }
+        boolean domMatch = daysOfMonth.get(date.getDayOfMonth());
+        boolean dowMatch = daysOfWeek.get(date.getDayOfWeek() == DayOfWeek.SUNDAY ? 0 : date.getDayOfWeek().getValue());
+        // Standard cron: when both day fields are restricted, either one may match
+        if (domRestricted && dowRestricted) {
+            return domMatch || dowMatch;
+        }
+        return domMatch && dowMatch;
+    }
+
+    private static BitSet parseField(String field, int min, int max, String[] names) {
+        BitSet values = new BitSet(max + 1);
+        for (String part : field.split(",")) {
+            int step = 1;
+            int slash = part.indexOf('/');
+            if (slash >= 0) {
+                step = parseValue(part.substring(slash + 1), 1, Integer.MAX_VALUE, null, 0);
+                part = part.substring(0, slash);
+            }
+
+            int from;
+            int to;
+            if ("*".equals(part)) {
+                from = min;
+                to = max;
+            } else {
+                int dash = part.indexOf('-');
+                if (dash >= 0) {
+                    from = parseValue(part.substring(0, dash), min, max, names, min);
+                    to = parseValue(part.substring(dash + 1), min, max, names, min);
+                } else {
+                    from = parseValue(part, min, max, names, min);
+                    to = slash >= 0 ? max : from;
+                }
+            }
+            if (from > to) {
+                throw new IllegalArgumentException("Invalid range in recurrence field: " + field);
+            }
+            for (int value = from; value <= to; value += step) {
+                values.set(value);
+            }
+        }
+        return values;
+    }
+
+    private static int parseValue(String token, int min, int max, String[] names, int nameOffset) {
+        if (names != null) {
+            for (int i = 0; i < names.length; i++) {
+                if (names[i].equalsIgnoreCase(token)) {
+                    return i + nameOffset;
+                }
+            }
+        }
+        try {
+            int value = Integer.parseInt(token);
+            if (value < min || value > max) {
+                throw new IllegalArgumentException("Recurrence value out of range: " + token);
+            }
+            return value;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid recurrence value: " + token);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return spec;
+    }
+}
@@ -0,0 +1,182 @@
+package com.todoapp;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fires task reminders in due order from a priority queue, so the cost per task is
+ * O(log n) on schedule and fire instead of a periodic scan of every task.
+ * Rescheduling or cancelling leaves the old queue entry in place; it is recognised
+ * as stale and skipped when it reaches the head, and the queue is rebuilt from the
+ * live entries once stale ones outnumber them.
+ */
+public class ReminderScheduler {
+    public enum Kind { DUE, OVERDUE }
+
+    // Queue size below which stale entries are left for the worker to skip
+    private static final int COMPACT_THRESHOLD = 64;
+
+    public interface Listener {
+        void onReminder(String taskId, Kind kind);
+    }
+
+    private final Listener listener;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final PriorityQueue<Entry> queue = new PriorityQueue<>();
+    // Live entry per task; anything else in the queue for that task is stale
+    private final Map<String, Entry> pending = new HashMap<>();
+    // DUE reminder fired per task, so rescheduling after an edit does not repeat it;
+    // dropped once the task's OVERDUE reminder ends the sequence
+    private final Map<String, Entry> fired = new HashMap<>();
+    private Thread worker;
+    private volatile boolean running;
+
+    public ReminderScheduler(Listener listener) {
+        this.listener = listener;
+    }
+
+    public void start() {
+        running = true;
+        worker = new Thread(this::run, "reminder-scheduler");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    public void schedule(String taskId, long fireAtMillis, Kind kind) {
+        lock.lock();
+        try {
+            Entry entry = new Entry(taskId, fireAtMillis, kind);
+            if (entry.sameAs(fired.get(taskId)) || entry.sameAs(pending.get(taskId))) {
+                return;
+            }
+            pending.put(taskId, entry);
+            queue.add(entry);
+            if (queue.peek() == entry) {
+                changed.signal();
+            }
+            compactIfNeeded();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Records a DUE reminder as already fired without firing it, so a later schedule() of it is a no-op.
+     */
+    public void markFired(String taskId, long fireAtMillis) {
+        lock.lock();
+        try {
+            fired.put(taskId, new Entry(taskId, fireAtMillis, Kind.DUE));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void cancel(String taskId) {
+        lock.lock();
+        try {
+            pending.remove(taskId);
+            fired.remove(taskId);
+            compactIfNeeded();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return pending.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void stop() {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+        }
+    }
+
+    private void run() {
+        while (running) {
+            Entry due;
+            lock.lock();
+            try {
+                due = takeDue();
+            } catch (InterruptedException e) {
+                return;
+            } finally {
+                lock.unlock();
+            }
+
+            // Called without the lock: the listener takes TaskService's lock and may reschedule
+            try {
+                listener.onReminder(due.taskId, due.kind);
+            } catch (RuntimeException e) {
+                System.err.println("Reminder for task " + due.taskId + " failed: " + e.getMessage());
+            }
+        }
+    }
+
+    private Entry takeDue() throws InterruptedException {
+        while (true) {
+            Entry head = queue.peek();
+            if (head == null) {
+                changed.await();
+                continue;
+            }
+            if (pending.get(head.taskId) != head) {
+                queue.poll();
+                continue;
+            }
+            long delay = head.fireAt - System.currentTimeMillis();
+            if (delay > 0) {
+                changed.await(delay, TimeUnit.MILLISECONDS);
+                continue;
+            }
+            queue.poll();
+            pending.remove(head.taskId);
+            if (head.kind == Kind.DUE) {
+                fired.put(head.taskId, head);
+            } else {
+                fired.remove(head.taskId);
+            }
+            return head;
+        }
+    }
+
+    private void compactIfNeeded() {
+        if (queue.size() > COMPACT_THRESHOLD && queue.size() > 2 * pending.size()) {
+            queue.clear();
+            queue.addAll(pending.values());
+        }
+    }
+
+    private static class Entry implements Comparable<Entry> {
+        final String taskId;
+        final long fireAt;
+        final Kind kind;
+
+        Entry(String taskId, long fireAt, Kind kind) {
+            this.taskId = taskId;
+            this.fireAt = fireAt;
+            this.kind = kind;
+        }
+
+        boolean sameAs(Entry other) {
+            return other != null && other.fireAt == fireAt && other.kind == kind;
+        }
+
+        @Override
+        public int compareTo(Entry other) {
+            return Long.compare(fireAt, other.fireAt);
+        }
+    }
+}
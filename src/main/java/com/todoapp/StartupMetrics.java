@@ -0,0 +1,31 @@
+package com.todoapp;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Milestones of the current start-up, in milliseconds since the JVM started.
+ * Reported by /api/status so cold-start regressions show up without a profiler.
+ */
+public final class StartupMetrics {
+    private static final long JVM_START = ManagementFactory.getRuntimeMXBean().getStartTime();
+    private static final Map<String, Object> MILESTONES = new LinkedHashMap<>();
+
+    private StartupMetrics() {
+    }
+
+    public static synchronized void mark(String milestone) {
+        long elapsed = System.currentTimeMillis() - JVM_START;
+        MILESTONES.put(milestone + "Ms", elapsed);
+        System.out.println("Startup: " + milestone + " after " + elapsed + " ms");
+    }
+
+    public static synchronized void record(String name, Object value) {
+        MILESTONES.put(name, value);
+    }
+
+    public static synchronized Map<String, Object> snapshot() {
+        return new LinkedHashMap<>(MILESTONES);
+    }
+}
@@ -1,5 +1,6 @@
 package com.todoapp;
 
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
 import com.fasterxml.jackson.annotation.JsonFormat;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
@@ -9,8 +10,15 @@ import java.util.Objects;
 import java.util.UUID;
 
 /**
- * Task model - replaces the JavaScript task object
+ * Task model - replaces the JavaScript task object.
+ * JSON binds straight to the fields so reading a task back never touches updatedAt;
+ * local edits stamp it in {@link #bumpRevision}.
  */
+@JsonAutoDetect(
+    fieldVisibility = JsonAutoDetect.Visibility.ANY,
+    getterVisibility = JsonAutoDetect.Visibility.NONE,
+    isGetterVisibility = JsonAutoDetect.Visibility.NONE,
+    setterVisibility = JsonAutoDetect.Visibility.NONE)
 public class Task {
     @JsonProperty("id")
     private String id;
@@ -32,6 +40,22 @@ public class Task {
     @JsonProperty("ownerId")
     private String ownerId;
 
+    // Lamport-style revision, bumped on every local edit and used to order concurrent writes
+    @JsonProperty("revision")
+    private long revision;
+
+    // Device that produced the current revision, used as the final tie-breaker
+    @JsonProperty("writerId")
+    private String writerId;
+
+    // RecurrenceRule spec; only the upcoming occurrence of a series carries it
+    @JsonProperty("recurrence")
+    private String recurrence;
+
+    // Revision of the Firestore copy this version descends from; kept locally, not synced
+    @JsonProperty("syncedRevision")
+    private long syncedRevision;
+
     public Task() {
         this.id = UUID.randomUUID().toString();
         this.updatedAt = LocalDateTime.now();
@@ -44,31 +68,114 @@ public class Task {
         this.completed = false;
     }
 
+    /**
+     * Detached copy, for handing a task to another thread while the original keeps changing.
+     */
+    public Task(Task other) {
+        this.id = other.id;
+        this.title = other.title;
+        this.completed = other.completed;
+        this.due = other.due;
+        this.updatedAt = other.updatedAt;
+        this.ownerId = other.ownerId;
+        this.revision = other.revision;
+        this.writerId = other.writerId;
+        this.recurrence = other.recurrence;
+        this.syncedRevision = other.syncedRevision;
+    }
+
     // Getters and Setters
     public String getId() { return id; }
     public void setId(String id) { this.id = id; }
     
     public String getTitle() { return title; }
-    public void setTitle(String title) { 
-        this.title = title; 
-        this.updatedAt = LocalDateTime.now(); 
-    }
+    public void setTitle(String title) { this.title = title; }
     
     public boolean isCompleted() { return completed; }
-    public void setCompleted(boolean completed) { 
-        this.completed = completed; 
-        this.updatedAt = LocalDateTime.now(); 
-    }
+    public void setCompleted(boolean completed) { this.completed = completed; }
     
     public LocalDate getDue() { return due; }
-    public void setDue(LocalDate due) { 
-        this.due = due; 
-        this.updatedAt = LocalDateTime.now(); 
-    }
+    public void setDue(LocalDate due) { this.due = due; }
     
     public LocalDateTime getUpdatedAt() { return updatedAt; }
     public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
     
     public String getOwnerId() { return ownerId; }
     public void setOwnerId(String ownerId) { this.ownerId = ownerId; }
+
+    public String getRecurrence() { return recurrence; }
+    public void setRecurrence(String recurrence) { this.recurrence = recurrence; }
+
+    public long getRevision() { return revision; }
+    public void setRevision(long revision) { this.revision = revision; }
+
+    public String getWriterId() { return writerId; }
+    public void setWriterId(String writerId) { this.writerId = writerId; }
+
+    public long getSyncedRevision() { return syncedRevision; }
+    public void setSyncedRevision(long syncedRevision) { this.syncedRevision = syncedRevision; }
+
+    /**
+     * Marks a local edit: advances the revision past anything seen so far, stamps updatedAt
+     * and records the writer.
+     */
+    public void bumpRevision(String writerId) {
+        this.revision++;
+        this.updatedAt = LocalDateTime.now();
+        this.writerId = writerId;
+    }
+
+    /**
+     * Deterministic ordering of two versions of the same task. Higher revision wins,
+     * then the later updatedAt, then the larger writerId, so every device picks the same winner.
+     */
+    public boolean isNewerThan(Task other) {
+        if (other == null) return true;
+        if (revision != other.revision) {
+            return revision > other.revision;
+        }
+        return compareEdits(other) > 0;
+    }
+
+    /**
+     * Resolves this local version against the stored remote copy and returns the one to keep:
+     * {@code remote} itself, this task, or a copy of this task renumbered to order after remote.
+     * Only the side that moved past {@link #getSyncedRevision()} carries an edit; when both did,
+     * the edits were concurrent and the later updatedAt wins, then the larger writerId.
+     */
+    public Task resolveAgainst(Task remote) {
+        if (remote == null) return this;
+        if (sameVersionAs(remote)) return remote;
+
+        boolean remoteMoved = remote.revision > syncedRevision;
+        boolean localMoved = revision > syncedRevision;
+        boolean localWins = remoteMoved && localMoved ? compareEdits(remote) > 0 : !remoteMoved;
+        if (!localWins) return remote;
+        if (revision > remote.revision) return this;
+
+        Task resolved = new Task(this);
+        resolved.revision = remote.revision + 1;
+        return resolved;
+    }
+
+    /**
+     * True if both are the same write of the task: same revision from the same device.
+     */
+    public boolean sameVersionAs(Task other) {
+        return other != null && revision == other.revision && Objects.equals(writerId, other.writerId);
+    }
+
+    private int compareEdits(Task other) {
+        int byTime = compareNullable(updatedAt, other.updatedAt);
+        if (byTime != 0) {
+            return byTime;
+        }
+        return compareNullable(writerId, other.writerId);
+    }
+
+    private static <T extends Comparable<T>> int compareNullable(T a, T b) {
+        if (a == null) return b == null ? 0 : -1;
+        if (b == null) return 1;
+        return a.compareTo(b);
+    }
 }
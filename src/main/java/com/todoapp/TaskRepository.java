@@ -0,0 +1,64 @@
+package com.todoapp;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Durable storage backend for tasks. Implementations return tasks newest-first
+ * and persist each change before returning.
+ */
+public interface TaskRepository {
+    String ENGINE_PROPERTY = "todo.storage";
+
+    List<Task> findAll();
+
+    /**
+     * Inserts a new task at the front, or replaces an existing task in place.
+     */
+    void save(Task task);
+
+    /**
+     * Saves several tasks in one write. New tasks go to the front, in the order given.
+     */
+    void saveAll(Collection<Task> tasks);
+
+    void delete(String taskId);
+
+    void deleteAll(Collection<String> taskIds);
+
+    void close();
+
+    /**
+     * Picks the engine named by the {@code todo.storage} system property:
+     * {@code json} (default) or {@code mvstore} (requires the {@code mvstore} Maven profile).
+     */
+    static TaskRepository create() {
+        return create(System.getProperty(ENGINE_PROPERTY, "json"));
+    }
+
+    static TaskRepository create(String engine) {
+        return create(engine, Paths.get("data"));
+    }
+
+    /**
+     * Opens the named engine's store inside {@code dataDir}.
+     */
+    static TaskRepository create(String engine, Path dataDir) {
+        switch (engine) {
+            case "json":
+                return new LocalStorageService(dataDir.resolve("tasks.json"));
+            case "mvstore":
+                try {
+                    return (TaskRepository) Class.forName("com.todoapp.MVStoreTaskRepository")
+                        .getDeclaredConstructor(Path.class)
+                        .newInstance(dataDir.resolve("tasks.mv.db"));
+                } catch (ReflectiveOperationException | LinkageError e) {
+                    throw new RuntimeException("MVStore engine not available, build with -Pmvstore", e);
+                }
+            default:
+                throw new IllegalArgumentException("Unknown storage engine: " + engine);
+        }
+    }
+}
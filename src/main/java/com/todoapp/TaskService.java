@@ -1,20 +1,77 @@
 package com.todoapp;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 public class TaskService {
-    private final LocalStorageService localStorage;
+    private final TaskRepository repository;
     private final FirebaseService firebaseService;
+    private final String writerId = UUID.randomUUID().toString();
     private List<Task> tasks;
-    private boolean syncEnabled = false;
+    // Written by initializeFirebase, which may run on the firebase-init thread
+    private volatile boolean syncEnabled = false;
+    private final CompletableFuture<Void> ready = new CompletableFuture<>();
+    private volatile CompletableFuture<Void> synced = CompletableFuture.completedFuture(null);
+    private final ReminderScheduler scheduler = new ReminderScheduler(this::onReminder);
+    private final EventLog eventLog = new EventLog(1000);
 
     public TaskService() {
-        this.localStorage = new LocalStorageService();
-        this.firebaseService = new FirebaseService();
-        this.tasks = localStorage.readLocal();
+        this(TaskRepository.create(), new FirebaseService());
+    }
+
+    public TaskService(TaskRepository repository, FirebaseService firebaseService) {
+        this.repository = repository;
+        this.firebaseService = firebaseService;
+        this.tasks = new ArrayList<>();
+
+        // Load the snapshot off the startup path so the HTTP port can open immediately
+        Thread loader = new Thread(this::loadSnapshot, "snapshot-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    private void loadSnapshot() {
+        List<Task> loaded;
+        try {
+            loaded = repository.findAll();
+        } catch (RuntimeException e) {
+            System.err.println("Failed to load tasks: " + e.getMessage());
+            loaded = new ArrayList<>();
+        }
+
+        synchronized (this) {
+            tasks = loaded;
+            // "due" for today already fired before the restart, if the server was up at midnight
+            long loadedAt = System.currentTimeMillis();
+            for (Task task : tasks) {
+                scheduleReminders(task, loadedAt);
+            }
+        }
+        scheduler.start();
+        StartupMetrics.record("tasksLoaded", loaded.size());
+        StartupMetrics.mark("snapshotLoaded");
+        ready.complete(null);
+    }
+
+    public CompletableFuture<Void> whenReady() {
+        return ready;
+    }
+
+    public boolean isReady() {
+        return ready.isDone();
     }
 
     public boolean initializeFirebase(String serviceAccountPath, String userId) {
@@ -22,44 +79,303 @@ public class TaskService {
         if (initialized) {
             firebaseService.setCurrentUser(userId);
             syncEnabled = true;
+            if (firebaseService.isSubscribedTo(userId)) {
+                synced = refreshFromFirebase(userId);
+            } else {
+                synced = firebaseService.subscribeToTasks(userId, this::applyRemoteChanges)
+                    .thenAccept(this::pushLocalChanges)
+                    .exceptionally(throwable -> {
+                        System.err.println("Failed to load tasks from Firebase: " + throwable.getMessage());
+                        return null;
+                    });
+            }
         }
         return initialized;
     }
 
+    /**
+     * Completes once the remote tasks from the last {@link #initializeFirebase} call are merged in.
+     */
+    public CompletableFuture<Void> whenSynced() {
+        return synced;
+    }
+
+    /**
+     * Re-reconciles with Firestore without re-opening the listener; served from the read cache when fresh.
+     */
+    public CompletableFuture<Void> refreshFromFirebase(String userId) {
+        return firebaseService.loadTasks(userId)
+            .thenAccept(remote -> {
+                applyRemoteChanges(remote, Collections.emptyList());
+                pushLocalChanges(remote);
+            })
+            .exceptionally(throwable -> {
+                System.err.println("Failed to refresh tasks from Firebase: " + throwable.getMessage());
+                return null;
+            });
+    }
+
+    public Map<String, Object> getCacheStats() {
+        return firebaseService.getCacheStats();
+    }
+
     public boolean isFirebaseEnabled() {
         return syncEnabled && firebaseService.isInitialized();
     }
 
-    public List<Task> getTasks() {
-        return tasks;
+    public synchronized List<Task> getTasks() {
+        // Snapshot copy: remote changes may land on the Firestore listener thread while callers iterate
+        return new ArrayList<>(tasks);
     }
 
-    public void addTask(Task task) {
+    public synchronized void addTask(Task task) {
+        task.bumpRevision(writerId);
         tasks.add(0, task);
-        localStorage.writeLocal(tasks);
+        repository.save(task);
+        scheduleReminders(task);
 
         if (syncEnabled) {
-            firebaseService.addTaskToFirestore(task).exceptionally(throwable -> {
-                System.err.println("Failed to sync task to Firebase: " + throwable.getMessage());
-                return null;
-            });
+            pushAdd(task);
+        }
+    }
+
+    /**
+     * Applies {@code mutator} to the live task under this service's lock, so an edit can never
+     * land on a copy that a remote change has just replaced. Returns null if the task is gone.
+     */
+    public synchronized Task updateTask(String taskId, Consumer<Task> mutator) {
+        int index = indexOf(taskId);
+        if (index < 0) {
+            return null;
         }
+
+        Task task = tasks.get(index);
+        mutator.accept(task);
+        updateTask(task);
+        return task;
     }
 
-    public void updateTask(Task task) {
-        localStorage.writeLocal(tasks);
+    private void updateTask(Task task) {
+        // Completing an occurrence hands the series on to the next one
+        Task next = task.isCompleted() ? materializeNext(task) : null;
+        saveUpdate(task);
+        if (next != null) {
+            addOccurrence(next);
+        }
+    }
+
+    private void saveUpdate(Task task) {
+        task.bumpRevision(writerId);
+        repository.save(task);
+        scheduleReminders(task);
 
         if (syncEnabled) {
-            firebaseService.updateTaskInFirestore(task).exceptionally(throwable -> {
-                System.err.println("Failed to sync task update to Firebase: " + throwable.getMessage());
-                return null;
-            });
+            pushUpdate(task);
+        }
+    }
+
+    // Both push methods run under this service's lock and send a copy: the Firestore call
+    // reads the task on another thread, possibly more than once if a transaction retries
+    private void pushAdd(Task task) {
+        Task sent = new Task(task);
+        firebaseService.addTaskToFirestore(sent).thenRun(() -> markSynced(sent)).exceptionally(throwable -> {
+            System.err.println("Failed to sync task to Firebase: " + throwable.getMessage());
+            return null;
+        });
+    }
+
+    private void pushUpdate(Task task) {
+        Task sent = new Task(task);
+        firebaseService.updateTaskInFirestore(sent).thenAccept(winner -> {
+            if (winner.sameVersionAs(sent)) {
+                markSynced(sent);
+            } else {
+                applyRemoteChanges(Collections.singletonList(winner), Collections.emptyList());
+            }
+        }).exceptionally(throwable -> {
+            System.err.println("Failed to sync task update to Firebase: " + throwable.getMessage());
+            return null;
+        });
+    }
+
+    // Firestore now holds this version, so later edits to the task build on it
+    private synchronized void markSynced(Task sent) {
+        int index = indexOf(sent.getId());
+        if (index >= 0 && tasks.get(index).getSyncedRevision() < sent.getRevision()) {
+            tasks.get(index).setSyncedRevision(sent.getRevision());
+        }
+    }
+
+    /**
+     * Runs after the remote tasks are merged in: sends what only exists here, and local
+     * edits Firestore has not seen, such as those made offline or before Firebase connected.
+     */
+    private synchronized void pushLocalChanges(List<Task> remote) {
+        Map<String, Task> remoteById = new HashMap<>();
+        for (Task task : remote) {
+            remoteById.put(task.getId(), task);
+        }
+        // Copy: a conflict resolved synchronously is merged back into the list
+        for (Task task : new ArrayList<>(tasks)) {
+            Task remoteTask = remoteById.get(task.getId());
+            if (remoteTask == null) {
+                pushAdd(task);
+            } else if (task.resolveAgainst(remoteTask) != remoteTask) {
+                pushUpdate(task);
+            }
+        }
+    }
+
+    /**
+     * Merges remote changes into the local list one task at a time. A remote version only
+     * replaces the local one when it wins {@link Task#resolveAgainst}, so a local edit that
+     * Firestore has not seen yet survives until it is pushed.
+     */
+    public synchronized void applyRemoteChanges(List<Task> changed, List<String> removedIds) {
+        if (!changed.isEmpty()) {
+            // One index and one repository write per batch: the initial snapshot can hold every task
+            Map<String, Integer> positions = new HashMap<>();
+            for (int i = 0; i < tasks.size(); i++) {
+                positions.put(tasks.get(i).getId(), i);
+            }
+
+            Map<String, Task> added = new LinkedHashMap<>();
+            List<Task> toSave = new ArrayList<>();
+            for (Task remote : changed) {
+                Integer index = positions.get(remote.getId());
+                if (index == null) {
+                    remote.setSyncedRevision(remote.getRevision());
+                    added.put(remote.getId(), remote);
+                } else if (tasks.get(index).resolveAgainst(remote) == remote) {
+                    remote.setSyncedRevision(remote.getRevision());
+                    tasks.set(index, remote);
+                    toSave.add(remote);
+                }
+            }
+
+            tasks.addAll(0, added.values());
+            List<Task> batch = new ArrayList<>(added.values());
+            batch.addAll(toSave);
+            repository.saveAll(batch);
+            batch.forEach(this::scheduleReminders);
+        }
+
+        if (!removedIds.isEmpty()) {
+            Set<String> removed = new HashSet<>(removedIds);
+            tasks.removeIf(task -> removed.contains(task.getId()));
+            repository.deleteAll(removedIds);
+            removedIds.forEach(scheduler::cancel);
+        }
+    }
+
+    private void scheduleReminders(Task task) {
+        scheduleReminders(task, Long.MIN_VALUE);
+    }
+
+    /**
+     * Queues the "due" reminder for a task due today or later; firing it queues "overdue" for
+     * the following day. Completed tasks and dates already past have none, so a restart or a
+     * late edit does not replay reminders for every old task. A "due" reminder that would fire
+     * before {@code dueNotBefore} is treated as already fired and only "overdue" is queued.
+     */
+    private void scheduleReminders(Task task, long dueNotBefore) {
+        if (task.isCompleted() || task.getDue() == null || task.getDue().isBefore(LocalDate.now())) {
+            scheduler.cancel(task.getId());
+            return;
+        }
+
+        long dueAt = startOfDay(task.getDue());
+        if (dueAt >= dueNotBefore) {
+            scheduler.schedule(task.getId(), dueAt, ReminderScheduler.Kind.DUE);
+        } else {
+            scheduler.markFired(task.getId(), dueAt);
+            scheduler.schedule(task.getId(), startOfDay(task.getDue().plusDays(1)), ReminderScheduler.Kind.OVERDUE);
+        }
+    }
+
+    private static long startOfDay(LocalDate date) {
+        return date.atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private synchronized void onReminder(String taskId, ReminderScheduler.Kind kind) {
+        int index = indexOf(taskId);
+        if (index < 0) {
+            return;
+        }
+
+        Task task = tasks.get(index);
+        if (task.isCompleted()) {
+            return;
+        }
+        eventLog.publish(kind == ReminderScheduler.Kind.DUE ? "due" : "overdue", task);
+
+        if (kind == ReminderScheduler.Kind.DUE) {
+            // Reaching the due date also hands the series on, so upcoming occurrences exist ahead of time
+            Task next = materializeNext(task);
+            if (next != null) {
+                saveUpdate(task);
+                addOccurrence(next);
+            }
+            scheduler.schedule(taskId, startOfDay(task.getDue().plusDays(1)), ReminderScheduler.Kind.OVERDUE);
+        }
+    }
+
+    /**
+     * Creates the next occurrence of a recurring task and moves the rule onto it.
+     * The id is derived from the series and date, so devices that materialize the
+     * same occurrence concurrently converge on one task after sync.
+     */
+    private Task materializeNext(Task task) {
+        if (task.getRecurrence() == null) {
+            return null;
+        }
+
+        // A broken rule (e.g. stored by an older build) must never abort saving the edit itself
+        RecurrenceRule rule;
+        LocalDate nextDue;
+        try {
+            rule = RecurrenceRule.parse(task.getRecurrence()).anchoredTo(task.getDue());
+            LocalDate today = LocalDate.now();
+            nextDue = task.getDue() != null ? rule.next(task.getDue()) : rule.next(today);
+            while (nextDue.isBefore(today)) {
+                nextDue = rule.next(nextDue);
+            }
+        } catch (RuntimeException e) {
+            System.err.println("Ignoring invalid recurrence on task " + task.getId() + ": " + e.getMessage());
+            return null;
+        }
+
+        Task next = new Task(task.getTitle(), nextDue);
+        next.setId(UUID.nameUUIDFromBytes((task.getId() + "/" + nextDue).getBytes(StandardCharsets.UTF_8)).toString());
+        next.setRecurrence(rule.toString());
+        next.setOwnerId(task.getOwnerId());
+        task.setRecurrence(null);
+        return next;
+    }
+
+    private void addOccurrence(Task next) {
+        if (indexOf(next.getId()) < 0) {
+            addTask(next);
+        }
+    }
+
+    public List<EventLog.Event> getEvents(long afterSeq) {
+        return eventLog.since(afterSeq);
+    }
+
+    private int indexOf(String taskId) {
+        for (int i = 0; i < tasks.size(); i++) {
+            if (tasks.get(i).getId().equals(taskId)) {
+                return i;
+            }
         }
+        return -1;
     }
 
-    public void removeTask(String taskId) {
+    public synchronized void removeTask(String taskId) {
         tasks.removeIf(task -> task.getId().equals(taskId));
-        localStorage.writeLocal(tasks);
+        repository.delete(taskId);
+        scheduler.cancel(taskId);
 
         if (syncEnabled) {
             firebaseService.deleteTaskFromFirestore(taskId).exceptionally(throwable -> {
@@ -69,14 +385,15 @@ public class TaskService {
         }
     }
 
-    public void clearCompletedTasks() {
+    public synchronized void clearCompletedTasks() {
         List<String> completedTaskIds = tasks.stream()
             .filter(Task::isCompleted)
             .map(Task::getId)
             .collect(Collectors.toList());
 
         tasks.removeIf(Task::isCompleted);
-        localStorage.writeLocal(tasks);
+        repository.deleteAll(completedTaskIds);
+        completedTaskIds.forEach(scheduler::cancel);
 
         if (syncEnabled && !completedTaskIds.isEmpty()) {
             CompletableFuture.allOf(
@@ -95,6 +412,8 @@ public class TaskService {
     }
 
     public void close() {
+        scheduler.stop();
         firebaseService.close();
+        repository.close();
     }
 }
@@ -1,7 +1,6 @@
 package com.todoapp;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 
 import java.io.IOException;
 import java.time.LocalDate;
@@ -13,15 +12,37 @@ public class TodoBackend {
     private final ObjectMapper objectMapper;
 
     public TodoBackend() {
-        this.taskService = new TaskService();
-        this.objectMapper = new ObjectMapper();
-        this.objectMapper.registerModule(new JavaTimeModule());
+        this(new TaskService());
+    }
+
+    public TodoBackend(TaskService taskService) {
+        this.taskService = taskService;
+        this.objectMapper = Json.mapper();
     }
 
     public boolean initializeFirebase(String serviceAccountPath, String userId) {
         return taskService.initializeFirebase(serviceAccountPath, userId);
     }
 
+    /**
+     * Connects to Firebase once the snapshot is loaded, without holding up startup.
+     */
+    public void initializeFirebaseInBackground(String serviceAccountPath, String userId) {
+        taskService.whenReady().thenRunAsync(() -> {
+            if (!taskService.initializeFirebase(serviceAccountPath, userId)) {
+                System.err.println("Background Firebase initialization failed");
+            }
+        }, runnable -> {
+            Thread thread = new Thread(runnable, "firebase-init");
+            thread.setDaemon(true);
+            thread.start();
+        });
+    }
+
+    public boolean isReady() {
+        return taskService.isReady();
+    }
+
     public String getTasks() {
         try {
             return objectMapper.writeValueAsString(taskService.getTasks());
@@ -30,10 +51,17 @@ public class TodoBackend {
         }
     }
 
-    public String addTask(String title, String dueDate) {
+    public String addTask(String title, String dueDate, String recurrence) {
         try {
             LocalDate due = dueDate != null && !dueDate.isEmpty() ? LocalDate.parse(dueDate) : null;
             Task task = new Task(title, due);
+            if (recurrence != null && !recurrence.isEmpty()) {
+                RecurrenceRule rule = RecurrenceRule.parse(recurrence);
+                if (due == null) {
+                    task.setDue(rule.firstOnOrAfter(LocalDate.now()));
+                }
+                task.setRecurrence(rule.anchoredTo(task.getDue()).toString());
+            }
             taskService.addTask(task);
             return objectMapper.writeValueAsString(task);
         } catch (Exception e) {
@@ -41,26 +69,26 @@ public class TodoBackend {
         }
     }
 
-    public String updateTask(String taskId, String title, boolean completed, String dueDate) {
+    /**
+     * A null recurrence leaves the task's rule unchanged; an empty one removes it.
+     */
+    public String updateTask(String taskId, String title, boolean completed, String dueDate, String recurrence) {
         try {
-            List<Task> tasks = taskService.getTasks();
-            Task task = tasks.stream()
-                .filter(t -> t.getId().equals(taskId))
-                .findFirst()
-                .orElse(null);
-            
-            if (task != null) {
-                task.setTitle(title);
-                task.setCompleted(completed);
-                if (dueDate != null && !dueDate.isEmpty()) {
-                    task.setDue(LocalDate.parse(dueDate));
-                } else {
-                    task.setDue(null);
+            // Parse everything up front so a bad value cannot leave the task half-edited
+            LocalDate due = dueDate != null && !dueDate.isEmpty() ? LocalDate.parse(dueDate) : null;
+            String rule = recurrence == null || recurrence.isEmpty()
+                ? null
+                : RecurrenceRule.parse(recurrence).anchoredTo(due).toString();
+
+            Task task = taskService.updateTask(taskId, t -> {
+                t.setTitle(title);
+                t.setCompleted(completed);
+                t.setDue(due);
+                if (recurrence != null) {
+                    t.setRecurrence(rule);
                 }
-                taskService.updateTask(task);
-                return objectMapper.writeValueAsString(task);
-            }
-            return "{}";
+            });
+            return task != null ? objectMapper.writeValueAsString(task) : "{}";
         } catch (Exception e) {
             return "{}";
         }
@@ -86,9 +114,34 @@ public class TodoBackend {
         }
     }
 
+    public String getEvents(long afterSeq) {
+        try {
+            return objectMapper.writeValueAsString(taskService.getEvents(afterSeq));
+        } catch (Exception e) {
+            return "[]";
+        }
+    }
+
     public String getSyncStatus() {
         return taskService.getSyncStatus();
     }
+
+    public String getCacheStats() {
+        try {
+            return objectMapper.writeValueAsString(taskService.getCacheStats());
+        } catch (Exception e) {
+            return "{}";
+        }
+    }
+
+    public String getStartupMetrics() {
+        try {
+            return objectMapper.writeValueAsString(StartupMetrics.snapshot());
+        } catch (Exception e) {
+            return "{}";
+        }
+    }
+
     public void close() {
         taskService.close();
     }
@@ -1,7 +1,5 @@
 package com.todoapp;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 import com.sun.net.httpserver.HttpServer;
@@ -20,13 +18,14 @@ import java.util.Map;
 
 public class TodoServer {
     private final TodoBackend backend;
-    private final ObjectMapper objectMapper;
     private HttpServer server;
 
     public TodoServer() {
-        this.backend = new TodoBackend();
-        this.objectMapper = new ObjectMapper();
-        this.objectMapper.registerModule(new JavaTimeModule());
+        this(new TodoBackend());
+    }
+
+    public TodoServer(TodoBackend backend) {
+        this.backend = backend;
     }
 
     public void start(int port) throws IOException {
@@ -35,18 +34,41 @@ public class TodoServer {
         // Serve static files
         server.createContext("/", new StaticFileHandler());
         
-        // API endpoints
-        server.createContext("/api/tasks", new TasksHandler());
-        server.createContext("/api/tasks/add", new AddTaskHandler());
-        server.createContext("/api/tasks/update", new UpdateTaskHandler());
-        server.createContext("/api/tasks/delete", new DeleteTaskHandler());
-        server.createContext("/api/tasks/clear", new ClearCompletedHandler());
-        server.createContext("/api/firebase/init", new FirebaseInitHandler());
+        // API endpoints, held until the task snapshot has loaded
+        server.createContext("/api/tasks", new ReadyGate(new TasksHandler()));
+        server.createContext("/api/tasks/add", new ReadyGate(new AddTaskHandler()));
+        server.createContext("/api/tasks/update", new ReadyGate(new UpdateTaskHandler()));
+        server.createContext("/api/tasks/delete", new ReadyGate(new DeleteTaskHandler()));
+        server.createContext("/api/tasks/clear", new ReadyGate(new ClearCompletedHandler()));
+        server.createContext("/api/firebase/init", new ReadyGate(new FirebaseInitHandler()));
+        server.createContext("/api/events", new ReadyGate(new EventsHandler()));
         server.createContext("/api/status", new StatusHandler());
         
         server.setExecutor(null);
         server.start();
-        System.out.println("Todo server started on http://localhost:" + port);
+        StartupMetrics.mark("portOpen");
+        System.out.println("Todo server started on http://localhost:" + getPort());
+
+        Thread warmUp = new Thread(() -> {
+            Json.warmUp();
+            StartupMetrics.mark("mapperWarm");
+        }, "mapper-warm-up");
+        warmUp.setDaemon(true);
+        warmUp.start();
+
+        // Optional: -Dtodo.firebase.serviceAccount=... -Dtodo.firebase.userId=... connects in the background
+        String serviceAccountPath = System.getProperty("todo.firebase.serviceAccount");
+        String userId = System.getProperty("todo.firebase.userId");
+        if (serviceAccountPath != null && userId != null) {
+            backend.initializeFirebaseInBackground(serviceAccountPath, userId);
+        }
+    }
+
+    /**
+     * The bound port, useful after {@code start(0)}.
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
     }
 
     public void stop() {
@@ -107,6 +129,26 @@ public class TodoServer {
         }
     }
 
+    private class ReadyGate implements HttpHandler {
+        private final HttpHandler delegate;
+
+        ReadyGate(HttpHandler delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void handle(HttpExchange exchange) throws IOException {
+            // Answer straight away: the default executor is the single dispatcher thread,
+            // so waiting here would stall static files and /api/status too
+            if (!backend.isReady()) {
+                exchange.getResponseHeaders().set("Retry-After", "1");
+                sendError(exchange, 503, "Tasks are still loading");
+                return;
+            }
+            delegate.handle(exchange);
+        }
+    }
+
     private class TasksHandler implements HttpHandler {
         @Override
         public void handle(HttpExchange exchange) throws IOException {
@@ -133,13 +175,14 @@ public class TodoServer {
             
             String title = params.get("title");
             String dueDate = params.get("due");
+            String recurrence = params.get("recurrence");
             
             if (title == null || title.trim().isEmpty()) {
                 sendError(exchange, 400, "Title is required");
                 return;
             }
 
-            String response = backend.addTask(title, dueDate);
+            String response = backend.addTask(title, dueDate, recurrence);
             sendResponse(exchange, 200, response);
         }
     }
@@ -159,13 +202,14 @@ public class TodoServer {
             String title = params.get("title");
             boolean completed = "true".equals(params.get("completed"));
             String dueDate = params.get("due");
+            String recurrence = params.get("recurrence");
             
             if (taskId == null) {
                 sendError(exchange, 400, "Task ID is required");
                 return;
             }
 
-            String response = backend.updateTask(taskId, title, completed, dueDate);
+            String response = backend.updateTask(taskId, title, completed, dueDate, recurrence);
             sendResponse(exchange, 200, response);
         }
     }
@@ -232,6 +276,28 @@ public class TodoServer {
         }
     }
 
+    private class EventsHandler implements HttpHandler {
+        @Override
+        public void handle(HttpExchange exchange) throws IOException {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                sendError(exchange, 405, "Method not allowed");
+                return;
+            }
+
+            Map<String, String> params = parseFormData(exchange.getRequestURI().getRawQuery());
+            long after;
+            try {
+                after = params.containsKey("after") ? Long.parseLong(params.get("after")) : 0;
+            } catch (NumberFormatException e) {
+                sendError(exchange, 400, "Invalid after parameter");
+                return;
+            }
+
+            String response = backend.getEvents(after);
+            sendResponse(exchange, 200, response);
+        }
+    }
+
     private class StatusHandler implements HttpHandler {
         @Override
         public void handle(HttpExchange exchange) throws IOException {
@@ -241,7 +307,8 @@ public class TodoServer {
             }
 
             String syncStatus = backend.getSyncStatus();
-            String response = "{\"syncStatus\":\"" + syncStatus + "\"}";
+            String response = "{\"syncStatus\":\"" + syncStatus + "\",\"cache\":" + backend.getCacheStats()
+                + ",\"startup\":" + backend.getStartupMetrics() + "}";
             sendResponse(exchange, 200, response);
         }
     }
@@ -283,6 +350,7 @@ public class TodoServer {
 
     public static void main(String[] args) {
         try {
+            StartupMetrics.mark("mainEntered");
             TodoServer server = new TodoServer();
             server.start(8080);
             
@@ -0,0 +1,130 @@
+package com.todoapp;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.h2.mvstore.MVMap;
+import org.h2.mvstore.MVStore;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Embedded B-tree engine backed by H2 MVStore. Each change touches only the affected
+ * entries instead of rewriting the whole dataset. Tasks are keyed by an insertion
+ * sequence so reads come back newest-first, matching the JSON engine.
+ */
+public class MVStoreTaskRepository implements TaskRepository {
+    private final ObjectMapper objectMapper;
+    private final MVStore store;
+    // insertion sequence -> task JSON
+    private final MVMap<Long, String> tasksBySeq;
+    // task id -> insertion sequence
+    private final MVMap<String, Long> seqById;
+
+    public MVStoreTaskRepository() {
+        this(Paths.get("data", "tasks.mv.db"));
+    }
+
+    public MVStoreTaskRepository(Path storagePath) {
+        this.objectMapper = Json.mapper();
+
+        try {
+            Files.createDirectories(storagePath.toAbsolutePath().getParent());
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to create storage directory", e);
+        }
+
+        this.store = new MVStore.Builder()
+            .fileName(storagePath.toString())
+            .compress()
+            .open();
+        this.tasksBySeq = store.openMap("tasks");
+        this.seqById = store.openMap("taskIds");
+    }
+
+    @Override
+    public synchronized List<Task> findAll() {
+        List<Task> tasks = new ArrayList<>(tasksBySeq.size());
+        for (String json : tasksBySeq.values()) {
+            tasks.add(fromJson(json));
+        }
+        Collections.reverse(tasks);
+        return tasks;
+    }
+
+    @Override
+    public synchronized void save(Task task) {
+        saveAll(Collections.singletonList(task));
+    }
+
+    @Override
+    public synchronized void saveAll(Collection<Task> tasks) {
+        if (tasks.isEmpty()) return;
+
+        // Walk backwards so the first new task gets the highest sequence and reads back first
+        List<Task> ordered = new ArrayList<>(tasks);
+        for (int i = ordered.size() - 1; i >= 0; i--) {
+            Task task = ordered.get(i);
+            Long seq = seqById.get(task.getId());
+            if (seq == null) {
+                Long last = tasksBySeq.lastKey();
+                seq = last == null ? 0L : last + 1;
+                seqById.put(task.getId(), seq);
+            }
+            tasksBySeq.put(seq, toJson(task));
+        }
+        store.commit();
+    }
+
+    @Override
+    public synchronized void delete(String taskId) {
+        Long seq = seqById.remove(taskId);
+        if (seq != null) {
+            tasksBySeq.remove(seq);
+            store.commit();
+        }
+    }
+
+    @Override
+    public synchronized void deleteAll(Collection<String> taskIds) {
+        boolean changed = false;
+        for (String taskId : taskIds) {
+            Long seq = seqById.remove(taskId);
+            if (seq != null) {
+                tasksBySeq.remove(seq);
+                changed = true;
+            }
+        }
+        if (changed) {
+            store.commit();
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (!store.isClosed()) {
+            store.close();
+        }
+    }
+
+    private String toJson(Task task) {
+        try {
+            return objectMapper.writeValueAsString(task);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to serialize task", e);
+        }
+    }
+
+    private Task fromJson(String json) {
+        try {
+            return objectMapper.readValue(json, Task.class);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to deserialize task", e);
+        }
+    }
+}